@@ -12,6 +12,9 @@ USE online_banking;
 -- =====================================================
 -- Drop existing tables (in correct order due to foreign keys)
 -- =====================================================
+DROP TABLE IF EXISTS id_blocks;
+DROP TABLE IF EXISTS ledger_checkpoint;
+DROP TABLE IF EXISTS account_sub_balances;
 DROP TABLE IF EXISTS transactions;
 DROP TABLE IF EXISTS accounts;
 DROP TABLE IF EXISTS users;
@@ -70,6 +73,8 @@ CREATE TABLE transactions (
     description TEXT,
     transaction_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     status VARCHAR(20) DEFAULT 'PENDING' CHECK (status IN ('PENDING', 'COMPLETED', 'FAILED', 'CANCELLED')),
+    -- "<from_account_id>:<client key>" for deduplicated transfer submissions
+    idempotency_key VARCHAR(80) NULL,
     
     -- Foreign key constraints
     FOREIGN KEY (from_account_id) REFERENCES accounts(account_id) ON DELETE SET NULL,
@@ -78,11 +83,45 @@ CREATE TABLE transactions (
     -- Indexes for better performance
     INDEX idx_from_account (from_account_id),
     INDEX idx_to_account (to_account_id),
+    INDEX idx_from_account_date (from_account_id, transaction_date),
+    INDEX idx_to_account_date (to_account_id, transaction_date),
     INDEX idx_transaction_date (transaction_date),
     INDEX idx_transaction_type (transaction_type),
-    INDEX idx_status (status)
+    INDEX idx_status (status),
+    UNIQUE KEY uk_idempotency_key (idempotency_key)
 );
 
+-- =====================================================
+-- Create Ledger Checkpoint Table
+-- =====================================================
+-- Highest ledger journal sequence applied to the tables above
+-- (used by the optional write-behind ledger, see com.banking.ledger)
+CREATE TABLE ledger_checkpoint (
+    id INT PRIMARY KEY,
+    last_applied_seq BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO ledger_checkpoint (id, last_applied_seq) VALUES (1, 0);
+
+-- Credit slots for "hot" accounts; an account is hot while it has rows here.
+-- Credits land on one slot row, and are periodically folded into accounts.balance.
+CREATE TABLE account_sub_balances (
+    account_id INT NOT NULL,
+    slot INT NOT NULL,
+    balance DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    PRIMARY KEY (account_id, slot),
+    FOREIGN KEY (account_id) REFERENCES accounts(account_id) ON DELETE CASCADE
+);
+
+-- Hi/lo block counters for in-memory id generation (see AccountNumberAllocator).
+-- next_hi is the next block to hand out; each block covers banking.accounts.blockSize ids.
+CREATE TABLE id_blocks (
+    name VARCHAR(32) PRIMARY KEY,
+    next_hi BIGINT NOT NULL
+);
+
+INSERT INTO id_blocks (name, next_hi) VALUES ('account_number', 1);
+
 -- =====================================================
 -- Insert Sample Data
 -- =====================================================
@@ -0,0 +1,48 @@
+-- =====================================================
+-- Online Banking System - Upgrade An Existing Database
+-- =====================================================
+-- Brings a database created by an older version of any setup script
+-- (simple_setup.sql, setup_with_dbname.sql, schema.sql or
+-- complete_database_setup.sql) up to the schema the application expects.
+-- Run it once; the ALTER TABLE fails if the column already exists.
+--
+--   mysql -u root -p < database/migrate_existing_database.sql
+--
+-- For a database with another name, replace online_banking below.
+-- =====================================================
+
+USE online_banking;
+
+-- Deduplicated transfer submissions ("<from_account_id>:<client key>") and
+-- the indexes behind the per-account history pages
+ALTER TABLE transactions ADD COLUMN idempotency_key VARCHAR(80) NULL;
+CREATE UNIQUE INDEX uk_idempotency_key ON transactions (idempotency_key);
+CREATE INDEX idx_from_account_date ON transactions (from_account_id, transaction_date);
+CREATE INDEX idx_to_account_date ON transactions (to_account_id, transaction_date);
+
+-- Ledger checkpoint table (optional write-behind ledger)
+CREATE TABLE IF NOT EXISTS ledger_checkpoint (
+    id INT PRIMARY KEY,
+    last_applied_seq BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT IGNORE INTO ledger_checkpoint (id, last_applied_seq) VALUES (1, 0);
+
+-- Credit slots for hot accounts (optional, see HotAccountService)
+CREATE TABLE IF NOT EXISTS account_sub_balances (
+    account_id INT NOT NULL,
+    slot INT NOT NULL,
+    balance DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    PRIMARY KEY (account_id, slot),
+    FOREIGN KEY (account_id) REFERENCES accounts(account_id) ON DELETE CASCADE
+);
+
+-- Hi/lo block counters for account numbers (see AccountNumberAllocator)
+CREATE TABLE IF NOT EXISTS id_blocks (
+    name VARCHAR(32) PRIMARY KEY,
+    next_hi BIGINT NOT NULL
+);
+
+INSERT IGNORE INTO id_blocks (name, next_hi) VALUES ('account_number', 1);
+
+SELECT 'Database upgraded!' as Status;
@@ -3,6 +3,8 @@
 -- =====================================================
 -- WARNING: This script will delete all data in the online_banking database
 -- Use this script only when you want to reset the database to initial state
+-- A database created before transactions.idempotency_key existed must be
+-- upgraded with migrate_existing_database.sql first.
 -- =====================================================
 
 USE online_banking;
@@ -11,6 +13,7 @@ USE online_banking;
 SET FOREIGN_KEY_CHECKS = 0;
 
 -- Clear all tables
+TRUNCATE TABLE account_sub_balances;
 TRUNCATE TABLE transactions;
 TRUNCATE TABLE accounts;
 TRUNCATE TABLE users;
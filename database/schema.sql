@@ -39,10 +39,39 @@ CREATE TABLE IF NOT EXISTS transactions (
     description TEXT,
     transaction_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     status VARCHAR(20) DEFAULT 'PENDING',
+    idempotency_key VARCHAR(80) NULL,
     FOREIGN KEY (from_account_id) REFERENCES accounts(account_id) ON DELETE SET NULL,
-    FOREIGN KEY (to_account_id) REFERENCES accounts(account_id) ON DELETE SET NULL
+    FOREIGN KEY (to_account_id) REFERENCES accounts(account_id) ON DELETE SET NULL,
+    INDEX idx_from_account_date (from_account_id, transaction_date),
+    INDEX idx_to_account_date (to_account_id, transaction_date),
+    UNIQUE KEY uk_idempotency_key (idempotency_key)
 );
 
+-- Ledger checkpoint table (optional write-behind ledger)
+CREATE TABLE IF NOT EXISTS ledger_checkpoint (
+    id INT PRIMARY KEY,
+    last_applied_seq BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT IGNORE INTO ledger_checkpoint (id, last_applied_seq) VALUES (1, 0);
+
+-- Credit slots for hot accounts (optional, see HotAccountService)
+CREATE TABLE IF NOT EXISTS account_sub_balances (
+    account_id INT NOT NULL,
+    slot INT NOT NULL,
+    balance DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    PRIMARY KEY (account_id, slot),
+    FOREIGN KEY (account_id) REFERENCES accounts(account_id) ON DELETE CASCADE
+);
+
+-- Hi/lo block counters for account numbers (see AccountNumberAllocator)
+CREATE TABLE IF NOT EXISTS id_blocks (
+    name VARCHAR(32) PRIMARY KEY,
+    next_hi BIGINT NOT NULL
+);
+
+INSERT IGNORE INTO id_blocks (name, next_hi) VALUES ('account_number', 1);
+
 -- Insert sample data
 INSERT INTO users (username, password, first_name, last_name, email, phone_number) VALUES
 ('john_doe', 'password123', 'John', 'Doe', 'john.doe@email.com', '123-456-7890'),
@@ -10,6 +10,9 @@ CREATE DATABASE IF NOT EXISTS online_banking;
 USE online_banking;
 
 -- Drop existing tables if they exist
+DROP TABLE IF EXISTS id_blocks;
+DROP TABLE IF EXISTS ledger_checkpoint;
+DROP TABLE IF EXISTS account_sub_balances;
 DROP TABLE IF EXISTS transactions;
 DROP TABLE IF EXISTS accounts;
 DROP TABLE IF EXISTS users;
@@ -49,10 +52,39 @@ CREATE TABLE transactions (
     description TEXT,
     transaction_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     status VARCHAR(20) DEFAULT 'PENDING',
+    idempotency_key VARCHAR(80) NULL,
     FOREIGN KEY (from_account_id) REFERENCES accounts(account_id) ON DELETE SET NULL,
-    FOREIGN KEY (to_account_id) REFERENCES accounts(account_id) ON DELETE SET NULL
+    FOREIGN KEY (to_account_id) REFERENCES accounts(account_id) ON DELETE SET NULL,
+    INDEX idx_from_account_date (from_account_id, transaction_date),
+    INDEX idx_to_account_date (to_account_id, transaction_date),
+    UNIQUE KEY uk_idempotency_key (idempotency_key)
 );
 
+-- Ledger checkpoint table (optional write-behind ledger)
+CREATE TABLE ledger_checkpoint (
+    id INT PRIMARY KEY,
+    last_applied_seq BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO ledger_checkpoint (id, last_applied_seq) VALUES (1, 0);
+
+-- Credit slots for hot accounts (optional, see HotAccountService)
+CREATE TABLE account_sub_balances (
+    account_id INT NOT NULL,
+    slot INT NOT NULL,
+    balance DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    PRIMARY KEY (account_id, slot),
+    FOREIGN KEY (account_id) REFERENCES accounts(account_id) ON DELETE CASCADE
+);
+
+-- Hi/lo block counters for account numbers (see AccountNumberAllocator)
+CREATE TABLE id_blocks (
+    name VARCHAR(32) PRIMARY KEY,
+    next_hi BIGINT NOT NULL
+);
+
+INSERT INTO id_blocks (name, next_hi) VALUES ('account_number', 1);
+
 -- Insert sample users
 INSERT INTO users (username, password, first_name, last_name, email, phone_number) VALUES
 ('john_doe', 'password123', 'John', 'Doe', 'john.doe@email.com', '123-456-7890'),
@@ -0,0 +1,122 @@
+package com.banking.bench;
+
+import com.banking.dao.AccountDAO;
+import com.banking.dao.TransactionDAO;
+import com.banking.model.Account;
+import com.banking.model.Transaction;
+import com.banking.model.User;
+import com.banking.service.AuthenticationService;
+import com.banking.service.BankingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives the service and DAO hot paths against the embedded database.
+ * Throughput mode reports ops/sec, SampleTime reports p50/p99 latency.
+ * Thread counts are swept by {@link BenchmarkRunner} (or -t on the JMH CLI).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BankingBenchmark {
+    private static final BigDecimal TRANSFER_AMOUNT = new BigDecimal("1.00");
+
+    @State(Scope.Benchmark)
+    public static class BankState {
+        @Param({"uniform", "zipfian"})
+        public String distribution;
+
+        @Param({"1000"})
+        public int accounts;
+
+        @Param({"20"})
+        public int historyPerAccount;
+
+        @Param({"64"})
+        public int maxConnections;
+
+        BankingService bankingService;
+        AuthenticationService authService;
+        AccountDAO accountDAO;
+        TransactionDAO transactionDAO;
+        int accountCount;
+        int userCount;
+        ZipfianGenerator accountKeys;
+        ZipfianGenerator userKeys;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            EmbeddedDatabase.configure(maxConnections);
+            EmbeddedDatabase.seed(accounts, historyPerAccount);
+            accountCount = EmbeddedDatabase.countAccounts();
+            userCount = EmbeddedDatabase.countUsers();
+            accountKeys = new ZipfianGenerator(accountCount, 0.99);
+            userKeys = new ZipfianGenerator(userCount, 0.99);
+            bankingService = new BankingService();
+            authService = new AuthenticationService();
+            accountDAO = new AccountDAO();
+            transactionDAO = new TransactionDAO();
+        }
+
+        int nextAccountId() {
+            return nextKey(accountKeys, accountCount);
+        }
+
+        int nextUserId() {
+            return nextKey(userKeys, userCount);
+        }
+
+        private int nextKey(ZipfianGenerator zipfian, int count) {
+            if ("zipfian".equals(distribution)) {
+                return zipfian.next() + 1;
+            }
+            return ThreadLocalRandom.current().nextInt(count) + 1;
+        }
+
+        int nextOtherAccountId(int accountId) {
+            int other = ThreadLocalRandom.current().nextInt(accountCount - 1) + 1;
+            return other >= accountId ? other + 1 : other;
+        }
+    }
+
+    /** Hot payee: the destination follows the configured distribution, the source is uniform. */
+    @Benchmark
+    public boolean transferFunds(BankState state) {
+        int toAccountId = state.nextAccountId();
+        int fromAccountId = state.nextOtherAccountId(toAccountId);
+        return state.bankingService.transferFunds(fromAccountId, toAccountId, TRANSFER_AMOUNT, "Benchmark transfer");
+    }
+
+    /** Seeded user; the first call rehashes the plaintext seed password, later ones verify the hash. */
+    @Benchmark
+    public User login(BankState state) {
+        return state.authService.login("john_doe", "password123");
+    }
+
+    @Benchmark
+    public List<Account> getAccountsByUserId(BankState state) {
+        return state.accountDAO.getAccountsByUserId(state.nextUserId());
+    }
+
+    @Benchmark
+    public List<Transaction> getTransactionsByAccountId(BankState state) {
+        return state.transactionDAO.getTransactionsByAccountId(state.nextAccountId());
+    }
+}
@@ -0,0 +1,32 @@
+package com.banking.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmark suite once per thread count.
+ *
+ * Usage: java -cp target/benchmarks.jar com.banking.bench.BenchmarkRunner [include-regex] [thread-counts]
+ * e.g.   java -cp target/benchmarks.jar com.banking.bench.BenchmarkRunner transferFunds 1,2,4,8,16
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : BankingBenchmark.class.getSimpleName();
+        String threadCounts = args.length > 1 ? args[1] : "1,2,4,8," + Runtime.getRuntime().availableProcessors();
+
+        for (String threads : threadCounts.split(",")) {
+            int t = Integer.parseInt(threads.trim());
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .include(include)
+                    .threads(t)
+                    .jvmArgsAppend("-Dbanking.bench.seed=" + System.getProperty("banking.bench.seed",
+                            "database/complete_database_setup.sql"))
+                    .resultFormat(ResultFormatType.CSV)
+                    .result("target/jmh-result-" + t + "-threads.csv");
+            new Runner(options.build()).run();
+        }
+    }
+}
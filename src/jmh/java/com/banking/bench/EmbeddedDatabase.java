@@ -0,0 +1,160 @@
+package com.banking.bench;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory H2 database (MySQL mode) seeded from the project's setup script,
+ * plus enough synthetic users/accounts/transactions to make contention and
+ * history scans meaningful. Views, procedures and triggers from the script are
+ * MySQL-only and are skipped.
+ */
+public final class EmbeddedDatabase {
+    public static final String URL =
+            "jdbc:h2:mem:online_banking;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+    public static final String USERNAME = "sa";
+    public static final String PASSWORD = "";
+
+    private static final String SEED_SCRIPT =
+            System.getProperty("banking.bench.seed", "database/complete_database_setup.sql");
+    private static final BigDecimal STARTING_BALANCE = new BigDecimal("1000000000.00");
+
+    private EmbeddedDatabase() {}
+
+    /**
+     * Points DatabaseConnection at the embedded database. Must run before the
+     * first DAO or service is constructed in this JVM.
+     */
+    public static void configure(int maxConnections) {
+        System.setProperty("banking.db.url", URL);
+        System.setProperty("banking.db.user", USERNAME);
+        System.setProperty("banking.db.password", PASSWORD);
+        System.setProperty("banking.db.pool.max", String.valueOf(maxConnections));
+        // Benchmarks hammer a handful of accounts; per-user limits would measure the limiter instead.
+        if (System.getProperty("banking.limits.enabled") == null) {
+            System.setProperty("banking.limits.enabled", "false");
+        }
+    }
+
+    public static void seed(int extraAccounts, int historyPerAccount) throws SQLException, IOException {
+        try (Connection conn = DriverManager.getConnection(URL, USERNAME, PASSWORD);
+             Statement stmt = conn.createStatement()) {
+            for (String sql : loadSeedStatements(Paths.get(SEED_SCRIPT))) {
+                stmt.execute(sql);
+            }
+            stmt.execute("UPDATE accounts SET balance = " + STARTING_BALANCE.toPlainString());
+            addSyntheticData(conn, extraAccounts, historyPerAccount);
+        }
+    }
+
+    public static int countAccounts() throws SQLException {
+        return queryInt("SELECT MAX(account_id) FROM accounts");
+    }
+
+    public static int countUsers() throws SQLException {
+        return queryInt("SELECT MAX(user_id) FROM users");
+    }
+
+    private static int queryInt(String sql) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(URL, USERNAME, PASSWORD);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    static List<String> loadSeedStatements(Path script) throws IOException {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inDelimiterBlock = false;
+
+        for (String line : Files.readAllLines(script, StandardCharsets.UTF_8)) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("DELIMITER")) {
+                inDelimiterBlock = !trimmed.equals("DELIMITER ;");
+                continue;
+            }
+            if (inDelimiterBlock || trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String sql = current.toString().trim();
+                sql = sql.substring(0, sql.length() - 1);
+                String upper = sql.toUpperCase();
+                if (upper.startsWith("CREATE TABLE") || upper.startsWith("DROP TABLE") || upper.startsWith("INSERT")) {
+                    statements.add(sql);
+                }
+                current.setLength(0);
+            }
+        }
+        return statements;
+    }
+
+    private static void addSyntheticData(Connection conn, int extraAccounts, int historyPerAccount) throws SQLException {
+        conn.setAutoCommit(false);
+        String userSql = "INSERT INTO users (username, password, first_name, last_name, email) VALUES (?, ?, ?, ?, ?)";
+        String accountSql = "INSERT INTO accounts (user_id, account_number, account_type, balance) VALUES (?, ?, ?, ?)";
+        String transactionSql = "INSERT INTO transactions (from_account_id, to_account_id, transaction_type, amount, description, status) " +
+                "VALUES (?, ?, 'TRANSFER', 1.00, 'Seed history', 'COMPLETED')";
+
+        int firstUserId;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(user_id), 0) + 1 FROM users")) {
+            rs.next();
+            firstUserId = rs.getInt(1);
+        }
+
+        try (PreparedStatement users = conn.prepareStatement(userSql);
+             PreparedStatement accounts = conn.prepareStatement(accountSql)) {
+            for (int i = 0; i < extraAccounts; i++) {
+                users.setString(1, "bench_user_" + i);
+                users.setString(2, "password");
+                users.setString(3, "Bench");
+                users.setString(4, "User" + i);
+                users.setString(5, "bench" + i + "@example.com");
+                users.addBatch();
+
+                accounts.setInt(1, firstUserId + i);
+                accounts.setString(2, "BENCH" + i);
+                accounts.setString(3, "CHECKING");
+                accounts.setBigDecimal(4, STARTING_BALANCE);
+                accounts.addBatch();
+            }
+            users.executeBatch();
+            accounts.executeBatch();
+        }
+
+        int totalAccounts;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(account_id) FROM accounts")) {
+            rs.next();
+            totalAccounts = rs.getInt(1);
+        }
+
+        try (PreparedStatement history = conn.prepareStatement(transactionSql)) {
+            for (int accountId = 1; accountId <= totalAccounts; accountId++) {
+                for (int i = 0; i < historyPerAccount; i++) {
+                    history.setInt(1, accountId);
+                    history.setInt(2, accountId % totalAccounts + 1);
+                    history.addBatch();
+                }
+            }
+            history.executeBatch();
+        }
+        conn.commit();
+    }
+}
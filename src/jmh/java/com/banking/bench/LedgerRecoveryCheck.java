@@ -0,0 +1,277 @@
+package com.banking.bench;
+
+import com.banking.ledger.LedgerEntry;
+import com.banking.ledger.LedgerJournal;
+import com.banking.ledger.LedgerService;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Crash-recovery checks for the ledger journal, run against temporary
+ * directories and the embedded database: reopening, torn records, segment
+ * rolls, releaseUpTo and replay past the database checkpoint. Exits with
+ * status 1 if any check fails.
+ *
+ * Usage: java -cp target/benchmarks.jar com.banking.bench.LedgerRecoveryCheck
+ */
+public final class LedgerRecoveryCheck {
+    private static final int HEADER_SIZE = 8;
+    // Large enough that a handful of entries fills a 64 MB segment.
+    private static final int LARGE_DESCRIPTION = 8 * 1024 * 1024;
+
+    private static int failures;
+
+    private LedgerRecoveryCheck() {}
+
+    public static void main(String[] args) throws Exception {
+        checkReopen();
+        checkTruncatedRecord();
+        checkCorruptRecord();
+        checkSegmentRollAndRelease();
+        checkCheckpointReplay();
+
+        System.out.println(failures == 0 ? "All ledger recovery checks passed" : failures + " check(s) failed");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static void checkReopen() throws IOException {
+        Path dir = Files.createTempDirectory("ledger-reopen");
+        try (LedgerJournal journal = open(dir, 0)) {
+            for (int i = 1; i <= 100; i++) {
+                journal.append(new LedgerEntry(i, i + 1, "TRANSFER", i * 100L, "entry " + i,
+                        i % 2 == 0 ? "key-" + i : null)).join();
+            }
+        }
+        try (LedgerJournal journal = open(dir, 0)) {
+            List<LedgerEntry> entries = journal.getUnappliedEntries();
+            check(entries.size() == 100, "reopen recovers every entry", entries.size());
+            boolean intact = true;
+            for (int i = 1; i <= entries.size(); i++) {
+                LedgerEntry entry = entries.get(i - 1);
+                intact &= entry.getSequence() == i && entry.getFromAccountId() == i
+                        && entry.getToAccountId() == i + 1 && entry.getAmountCents() == i * 100L
+                        && ("entry " + i).equals(entry.getDescription())
+                        && (i % 2 == 0 ? ("key-" + i).equals(entry.getIdempotencyKey()) : entry.getIdempotencyKey() == null);
+            }
+            check(intact, "reopen reads back every field in sequence order", null);
+        }
+        try (LedgerJournal journal = open(dir, 40)) {
+            List<LedgerEntry> entries = journal.getUnappliedEntries();
+            check(entries.size() == 60 && entries.get(0).getSequence() == 41,
+                    "entries up to the applied sequence are not replayed", entries.size());
+            long next = journal.append(new LedgerEntry(1, 2, "TRANSFER", 1, "next")).join().getSequence();
+            check(next == 101, "sequences continue after the last recovered entry", next);
+        }
+        delete(dir);
+    }
+
+    private static void checkTruncatedRecord() throws IOException {
+        Path dir = writeTen("ledger-truncated");
+        Path segment = segments(dir).get(0);
+        int end = validEnd(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // Cut the file off in the middle of the last record's body.
+            channel.truncate(end - 5);
+        }
+        checkTornTail(dir, "truncated");
+    }
+
+    private static void checkCorruptRecord() throws IOException {
+        Path dir = writeTen("ledger-corrupt");
+        Path segment = segments(dir).get(0);
+        int end = validEnd(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // A half-written body: the header is intact but the checksum no longer matches.
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), end - 3);
+        }
+        checkTornTail(dir, "corrupt");
+    }
+
+    private static void checkTornTail(Path dir, String kind) throws IOException {
+        try (LedgerJournal journal = open(dir, 0)) {
+            List<LedgerEntry> entries = journal.getUnappliedEntries();
+            check(entries.size() == 9 && entries.get(8).getSequence() == 9,
+                    "a " + kind + " last record is dropped on recovery", entries.size());
+        }
+        try (LedgerJournal journal = open(dir, 0)) {
+            check(journal.getUnappliedEntries().size() == 9,
+                    "a " + kind + " record stays dropped when reopened without appending", journal.getUnappliedEntries().size());
+            long next = journal.append(new LedgerEntry(1, 2, "TRANSFER", 1, "after " + kind)).join().getSequence();
+            check(next == 10, "the sequence of a " + kind + " record is reused", next);
+        }
+        try (LedgerJournal journal = open(dir, 0)) {
+            List<LedgerEntry> entries = journal.getUnappliedEntries();
+            check(entries.size() == 10 && ("after " + kind).equals(entries.get(9).getDescription()),
+                    "an entry written over a " + kind + " record is recovered", entries.size());
+        }
+        delete(dir);
+    }
+
+    private static void checkSegmentRollAndRelease() throws IOException {
+        Path dir = Files.createTempDirectory("ledger-roll");
+        char[] filler = new char[LARGE_DESCRIPTION];
+        Arrays.fill(filler, 'x');
+        String large = new String(filler);
+        try (LedgerJournal journal = open(dir, 0)) {
+            for (int i = 0; i < 16; i++) {
+                journal.append(new LedgerEntry(1, 2, "TRANSFER", 1, large)).join();
+            }
+        }
+        List<Path> files = segments(dir);
+        check(files.size() >= 3, "large entries roll the journal into new segments", files.size());
+
+        long firstOfSecond = firstSequence(files.get(1));
+        long firstOfLast = firstSequence(files.get(files.size() - 1));
+        try (LedgerJournal journal = open(dir, 0)) {
+            check(journal.getUnappliedEntries().size() == 16, "entries are recovered across segments",
+                    journal.getUnappliedEntries().size());
+            journal.releaseUpTo(firstOfSecond - 2);
+            check(segments(dir).size() == files.size(), "a partly applied segment is kept", segments(dir).size());
+            journal.releaseUpTo(firstOfSecond - 1);
+            check(!Files.exists(files.get(0)) && segments(dir).size() == files.size() - 1,
+                    "a fully applied segment is deleted", segments(dir).size());
+            journal.releaseUpTo(16);
+            check(segments(dir).equals(files.subList(files.size() - 1, files.size())),
+                    "the active segment is never deleted", segments(dir));
+        }
+        try (LedgerJournal journal = open(dir, firstOfLast)) {
+            List<LedgerEntry> entries = journal.getUnappliedEntries();
+            check(entries.size() == 16 - firstOfLast && (entries.isEmpty() || entries.get(0).getSequence() == firstOfLast + 1),
+                    "after a release only the remaining unapplied entries are replayed", entries.size());
+            long next = journal.append(new LedgerEntry(1, 2, "TRANSFER", 1, "after release")).join().getSequence();
+            check(next == 17, "sequences continue after released segments", next);
+        }
+        delete(dir);
+    }
+
+    private static void checkCheckpointReplay() throws Exception {
+        EmbeddedDatabase.configure(4);
+        EmbeddedDatabase.seed(0, 0);
+        Path dir = Files.createTempDirectory("ledger-replay");
+        try (LedgerJournal journal = open(dir, 0)) {
+            for (long cents : new long[]{100, 200, 400}) {
+                journal.append(new LedgerEntry(1, 2, "TRANSFER", cents, "replay")).join();
+            }
+        }
+        BigDecimal from;
+        BigDecimal to;
+        try (Connection conn = DriverManager.getConnection(EmbeddedDatabase.URL, EmbeddedDatabase.USERNAME,
+                EmbeddedDatabase.PASSWORD);
+             Statement stmt = conn.createStatement()) {
+            // As if the first entry had been applied before the crash.
+            stmt.executeUpdate("UPDATE ledger_checkpoint SET last_applied_seq = 1 WHERE id = 1");
+            from = balance(stmt, 1);
+            to = balance(stmt, 2);
+        }
+
+        System.setProperty("banking.ledger.enabled", "true");
+        System.setProperty("banking.ledger.dir", dir.toString());
+        LedgerService ledger = LedgerService.getInstance();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (ledger.getApplier().getAppliedEntryCount() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        ledger.shutdown();
+
+        try (Connection conn = DriverManager.getConnection(EmbeddedDatabase.URL, EmbeddedDatabase.USERNAME,
+                EmbeddedDatabase.PASSWORD);
+             Statement stmt = conn.createStatement()) {
+            check(from.subtract(balance(stmt, 1)).compareTo(new BigDecimal("6.00")) == 0
+                            && balance(stmt, 2).subtract(to).compareTo(new BigDecimal("6.00")) == 0,
+                    "replay applies only the entries past the checkpoint", balance(stmt, 1));
+            check(queryLong(stmt, "SELECT last_applied_seq FROM ledger_checkpoint WHERE id = 1") == 3,
+                    "replay advances the checkpoint", null);
+            check(queryLong(stmt, "SELECT COUNT(*) FROM transactions WHERE description = 'replay'") == 2,
+                    "replay writes one transaction per unapplied entry", null);
+        }
+        delete(dir);
+    }
+
+    private static Path writeTen(String prefix) throws IOException {
+        Path dir = Files.createTempDirectory(prefix);
+        try (LedgerJournal journal = open(dir, 0)) {
+            for (int i = 1; i <= 10; i++) {
+                journal.append(new LedgerEntry(1, 2, "TRANSFER", i, "entry " + i, "key-" + i)).join();
+            }
+        }
+        return dir;
+    }
+
+    private static LedgerJournal open(Path dir, long appliedSequence) throws IOException {
+        return new LedgerJournal(dir, appliedSequence, 0, 256, entry -> { });
+    }
+
+    // Offset just past the last record in the segment, walking the length headers.
+    private static int validEnd(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int end = 0;
+            while (data.remaining() >= HEADER_SIZE) {
+                int length = data.getInt(end);
+                if (length <= 0) {
+                    break;
+                }
+                end += HEADER_SIZE + length;
+                data.position(end);
+            }
+            return end;
+        }
+    }
+
+    private static List<Path> segments(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".journal")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.indexOf('.')));
+    }
+
+    private static BigDecimal balance(Statement stmt, int accountId) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT balance FROM accounts WHERE account_id = " + accountId)) {
+            rs.next();
+            return rs.getBigDecimal(1);
+        }
+    }
+
+    private static long queryLong(Statement stmt, String sql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static void check(boolean passed, String description, Object actual) {
+        if (passed) {
+            System.out.println("ok   " + description);
+        } else {
+            failures++;
+            System.out.println("FAIL " + description + (actual == null ? "" : " (got " + actual + ")"));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.banking.bench;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Draws ranks in [0, n) with P(k) proportional to 1 / (k + 1)^s, so a small set
+ * of "hot" accounts receives most of the traffic. Uses a precomputed CDF and
+ * binary search, which is plenty fast for the account counts we benchmark.
+ */
+public final class ZipfianGenerator {
+    private final double[] cdf;
+
+    public ZipfianGenerator(int n, double exponent) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be positive");
+        }
+        cdf = new double[n];
+        double sum = 0.0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= sum;
+        }
+    }
+
+    public int next() {
+        double u = ThreadLocalRandom.current().nextDouble();
+        int lo = 0;
+        int hi = cdf.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cdf[mid] < u) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
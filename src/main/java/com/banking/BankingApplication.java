@@ -1,15 +1,23 @@
 package com.banking;
 
+import com.banking.diagnostics.FlightRecorderControl;
+import com.banking.ledger.LedgerService;
 import com.banking.model.User;
+import com.banking.server.BankingServer;
+import com.banking.service.AuthenticationService;
+import com.banking.service.BankingService;
+import com.banking.service.ServiceExecutor;
 import com.banking.ui.DashboardFrame;
 import com.banking.ui.LoginFrame;
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
+import java.util.concurrent.CompletableFuture;
 
 public class BankingApplication {
     private LoginFrame loginFrame;
     private DashboardFrame dashboardFrame;
+    private CompletableFuture<Services> services;
 
     public BankingApplication() {
         initializeApplication();
@@ -23,6 +31,10 @@ public class BankingApplication {
             System.err.println("Could not set system look and feel: " + e.getMessage());
         }
 
+        // Opening the pool, replaying the journal and retiring hot slots all use the
+        // database, so they run off the EDT; the login screen waits for them.
+        services = CompletableFuture.supplyAsync(Services::new, ServiceExecutor.get());
+
         showLogin();
     }
 
@@ -30,19 +42,42 @@ public class BankingApplication {
         if (loginFrame != null) {
             loginFrame.dispose();
         }
-        loginFrame = new LoginFrame(this);
+        loginFrame = new LoginFrame(this, services.thenApply(started -> started.authService));
         loginFrame.setVisible(true);
     }
 
-    public void showDashboard(User user) {
+    public void showDashboard(User user, String sessionToken) {
         if (dashboardFrame != null) {
             dashboardFrame.dispose();
         }
-        dashboardFrame = new DashboardFrame(user);
+        // Login is only enabled once the services are up, so this does not wait.
+        dashboardFrame = new DashboardFrame(user, sessionToken, services.join().bankingService);
         dashboardFrame.setVisible(true);
     }
 
-    public static void main(String[] args) {
+    /** Services whose construction touches the database. */
+    private static final class Services {
+        private final AuthenticationService authService;
+        private final BankingService bankingService;
+
+        private Services() {
+            // Replay any journaled transfers left over from the previous run
+            if (LedgerService.isEnabled()) {
+                LedgerService.getInstance();
+            }
+            this.bankingService = new BankingService();
+            this.authService = new AuthenticationService();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        FlightRecorderControl.initialize();
+
+        if (args.length > 0 && args[0].equals("--server")) {
+            BankingServer.main(args);
+            return;
+        }
+
         // Ensure database connection is available
         SwingUtilities.invokeLater(new Runnable() {
             @Override
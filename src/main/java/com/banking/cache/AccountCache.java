@@ -0,0 +1,192 @@
+package com.banking.cache;
+
+import com.banking.dao.AccountDAO;
+import com.banking.model.Account;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Read-through cache over {@link AccountDAO} lookups by account_id,
+ * account_number and user_id. Cached accounts are shared and must be treated
+ * as read-only. Callers that change balances or account membership must call
+ * {@link #invalidate(int)} / {@link #invalidateUser(int)} after committing.
+ *
+ * A load is not cached if the account or user it read was invalidated while
+ * it ran. Invalidations are stamped per stripe of account and user ids, so
+ * under transfer load only loads of the accounts being changed (and the few
+ * ids sharing their stripe) are affected.
+ */
+public class AccountCache {
+    private static final int MAX_SIZE = Integer.getInteger("banking.cache.accounts.maxSize", 10_000);
+    private static final long TTL_SECONDS = Long.getLong("banking.cache.accounts.ttlSeconds", 30L);
+    private static final int STRIPES = 4096;
+
+    private static volatile AccountCache instance;
+
+    private final AccountDAO accountDAO;
+    private final LruCache<Integer, Account> byId;
+    private final LruCache<String, Account> byNumber;
+    private final LruCache<Integer, List<Account>> byUser;
+    // account_id -> (account_number, user_id) of cached rows, so invalidation can find every key
+    private final ConcurrentHashMap<Integer, Account> keys = new ConcurrentHashMap<>();
+    // Accounts evicted or expired from one of the views; their keys entry goes once no view holds them.
+    private final Queue<Account> dropped = new ConcurrentLinkedQueue<>();
+    // Sequence number of the latest invalidation per stripe; a load that started before it is not cached.
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLongArray accountStamps = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray userStamps = new AtomicLongArray(STRIPES);
+
+    private AccountCache() {
+        this.accountDAO = new AccountDAO();
+        this.byId = new LruCache<>(MAX_SIZE, TTL_SECONDS, TimeUnit.SECONDS, (id, account) -> dropped.add(account));
+        this.byNumber = new LruCache<>(MAX_SIZE, TTL_SECONDS, TimeUnit.SECONDS,
+                (number, account) -> dropped.add(account));
+        this.byUser = new LruCache<>(MAX_SIZE, TTL_SECONDS, TimeUnit.SECONDS,
+                (userId, accounts) -> dropped.addAll(accounts));
+    }
+
+    public static AccountCache getInstance() {
+        if (instance == null) {
+            synchronized (AccountCache.class) {
+                if (instance == null) {
+                    instance = new AccountCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    public Account getById(int accountId) {
+        Account account = byId.get(accountId);
+        if (account != null) {
+            return account;
+        }
+        long loadStarted = sequence.get();
+        account = accountDAO.getAccountById(accountId);
+        if (account != null) {
+            synchronized (this) {
+                if (unchangedSince(account, loadStarted)) {
+                    remember(account);
+                    byId.put(accountId, account);
+                }
+                prune();
+            }
+        }
+        return account;
+    }
+
+    public Account getByNumber(String accountNumber) {
+        Account account = byNumber.get(accountNumber);
+        if (account != null) {
+            return account;
+        }
+        long loadStarted = sequence.get();
+        account = accountDAO.getAccountByAccountNumber(accountNumber);
+        if (account != null) {
+            synchronized (this) {
+                if (unchangedSince(account, loadStarted)) {
+                    remember(account);
+                    byNumber.put(accountNumber, account);
+                }
+                prune();
+            }
+        }
+        return account;
+    }
+
+    public List<Account> getByUserId(int userId) {
+        List<Account> accounts = byUser.get(userId);
+        if (accounts != null) {
+            return accounts;
+        }
+        long loadStarted = sequence.get();
+        accounts = Collections.unmodifiableList(accountDAO.getAccountsByUserId(userId));
+        synchronized (this) {
+            boolean unchanged = stamp(userStamps, userId) <= loadStarted;
+            for (Account account : accounts) {
+                unchanged &= unchangedSince(account, loadStarted);
+            }
+            if (unchanged) {
+                for (Account account : accounts) {
+                    remember(account);
+                }
+                byUser.put(userId, accounts);
+            }
+            prune();
+        }
+        return accounts;
+    }
+
+    /** Drops every cached view of the account (by id, number and owning user). */
+    public synchronized void invalidate(int accountId) {
+        accountStamps.set(stripe(accountId), sequence.incrementAndGet());
+        byId.remove(accountId);
+        Account known = keys.remove(accountId);
+        if (known != null) {
+            byNumber.remove(known.getAccountNumber());
+            byUser.remove(known.getUserId());
+        }
+    }
+
+    public synchronized void invalidateUser(int userId) {
+        userStamps.set(stripe(userId), sequence.incrementAndGet());
+        byUser.remove(userId);
+    }
+
+    public synchronized void clear() {
+        long stamp = sequence.incrementAndGet();
+        for (int i = 0; i < STRIPES; i++) {
+            accountStamps.set(i, stamp);
+            userStamps.set(i, stamp);
+        }
+        byId.clear();
+        byNumber.clear();
+        byUser.clear();
+        keys.clear();
+        dropped.clear();
+    }
+
+    public LruCache<Integer, Account> getByIdCache() { return byId; }
+    public LruCache<String, Account> getByNumberCache() { return byNumber; }
+    public LruCache<Integer, List<Account>> getByUserCache() { return byUser; }
+
+    @Override
+    public String toString() {
+        return "AccountCache[byId{" + byId + "}, byNumber{" + byNumber + "}, byUser{" + byUser + "}]";
+    }
+
+    private void remember(Account account) {
+        keys.put(account.getAccountId(), account);
+    }
+
+    private boolean unchangedSince(Account account, long loadStarted) {
+        return stamp(accountStamps, account.getAccountId()) <= loadStarted
+                && stamp(userStamps, account.getUserId()) <= loadStarted;
+    }
+
+    // Called with the monitor held; the LruCache listeners only queue, so no cache lock is held here.
+    private void prune() {
+        Account account;
+        while ((account = dropped.poll()) != null) {
+            if (!byId.containsKey(account.getAccountId())
+                    && !byNumber.containsKey(account.getAccountNumber())
+                    && !byUser.containsKey(account.getUserId())) {
+                keys.remove(account.getAccountId(), account);
+            }
+        }
+    }
+
+    private static long stamp(AtomicLongArray stamps, int id) {
+        return stamps.get(stripe(id));
+    }
+
+    private static int stripe(int id) {
+        return (id * 0x9E3779B9 >>> 20) & (STRIPES - 1);
+    }
+}
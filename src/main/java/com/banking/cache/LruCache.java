@@ -0,0 +1,121 @@
+package com.banking.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Bounded LRU map with a per-entry time-to-live. Access is serialized on the
+ * cache instance, which is fine for the small critical sections involved.
+ * An optional listener hears about entries dropped for size or age; it runs
+ * under the cache lock and must not call back into other caches.
+ */
+public class LruCache<K, V> {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Timed<V>> map;
+    private final BiConsumer<? super K, ? super V> onRemoval;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    public LruCache(int maxSize, long ttl, TimeUnit unit) {
+        this(maxSize, ttl, unit, null);
+    }
+
+    public LruCache(int maxSize, long ttl, TimeUnit unit, BiConsumer<? super K, ? super V> onRemoval) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.onRemoval = onRemoval;
+        this.map = new LinkedHashMap<K, Timed<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Timed<V>> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    removed(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** Returns the cached value, or null on a miss or if the entry has expired. */
+    public synchronized V get(K key) {
+        Timed<V> entry = map.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAtNanos > 0) {
+            map.remove(key);
+            expirations.incrementAndGet();
+            misses.incrementAndGet();
+            removed(key, entry);
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        map.put(key, new Timed<>(value, System.nanoTime() + ttlNanos));
+    }
+
+    /** True if {@code key} has an entry, expired or not; does not count as an access. */
+    public synchronized boolean containsKey(K key) {
+        return map.containsKey(key);
+    }
+
+    public synchronized V remove(K key) {
+        Timed<V> entry = map.remove(key);
+        return entry == null ? null : entry.value;
+    }
+
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    private void removed(K key, Timed<V> entry) {
+        if (onRemoval != null) {
+            onRemoval.accept(key, entry.value);
+        }
+    }
+
+    public long getHitCount() { return hits.get(); }
+    public long getMissCount() { return misses.get(); }
+    public long getEvictionCount() { return evictions.get(); }
+    public long getExpirationCount() { return expirations.get(); }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size=%d, hits=%d, misses=%d, hitRate=%.2f, evictions=%d, expirations=%d",
+                size(), getHitCount(), getMissCount(), getHitRate(), getEvictionCount(), getExpirationCount());
+    }
+
+    private static final class Timed<V> {
+        private final V value;
+        private final long expiresAtNanos;
+
+        private Timed(V value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
@@ -1,12 +1,35 @@
 package com.banking.dao;
 
 import com.banking.database.DatabaseConnection;
+import com.banking.metrics.MetricsRegistry;
+import com.banking.metrics.OperationMetrics;
 import com.banking.model.Account;
+import com.banking.model.Money;
+import java.math.BigDecimal;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class AccountDAO {
+    private static final OperationMetrics GET_BY_USER_ID = MetricsRegistry.operation("AccountDAO.getAccountsByUserId");
+    private static final OperationMetrics GET_BY_NUMBER = MetricsRegistry.operation("AccountDAO.getAccountByAccountNumber");
+    private static final OperationMetrics GET_BY_ID = MetricsRegistry.operation("AccountDAO.getAccountById");
+    private static final OperationMetrics GET_ACTIVE_BALANCES = MetricsRegistry.operation("AccountDAO.getActiveBalances");
+    private static final OperationMetrics UPDATE_BALANCE = MetricsRegistry.operation("AccountDAO.updateAccountBalance");
+    private static final OperationMetrics CREATE = MetricsRegistry.operation("AccountDAO.createAccount");
+
+    private static final Projection<Account> ACCOUNT = new Projection<>(
+            "account_id, user_id, account_number, account_type, balance, created_date, is_active",
+            AccountDAO::mapAccount);
+    private static final String BY_USER_ID_SQL =
+            "SELECT " + ACCOUNT.getColumns() + " FROM accounts WHERE user_id = ? AND is_active = TRUE";
+    private static final String BY_NUMBER_SQL =
+            "SELECT " + ACCOUNT.getColumns() + " FROM accounts WHERE account_number = ? AND is_active = TRUE";
+    private static final String BY_ID_SQL =
+            "SELECT " + ACCOUNT.getColumns() + " FROM accounts WHERE account_id = ? AND is_active = TRUE";
+
     private DatabaseConnection dbConnection;
 
     public AccountDAO() {
@@ -14,8 +37,10 @@ public class AccountDAO {
     }
 
     public List<Account> getAccountsByUserId(int userId) {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
         List<Account> accounts = new ArrayList<>();
-        String sql = "SELECT * FROM accounts WHERE user_id = ? AND is_active = TRUE";
+        String sql = BY_USER_ID_SQL;
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -24,17 +49,22 @@ public class AccountDAO {
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
-                accounts.add(mapResultSetToAccount(rs));
+                accounts.add(ACCOUNT.map(rs));
             }
+            rows = accounts.size();
             
         } catch (SQLException e) {
             System.err.println("Error getting accounts: " + e.getMessage());
+        } finally {
+            GET_BY_USER_ID.record(start, rows);
         }
         return accounts;
     }
 
     public Account getAccountByAccountNumber(String accountNumber) {
-        String sql = "SELECT * FROM accounts WHERE account_number = ? AND is_active = TRUE";
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
+        String sql = BY_NUMBER_SQL;
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -43,34 +73,93 @@ public class AccountDAO {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return mapResultSetToAccount(rs);
+                Account account = ACCOUNT.map(rs);
+                rows = 1;
+                return account;
             }
+            rows = 0;
             
         } catch (SQLException e) {
             System.err.println("Error getting account: " + e.getMessage());
+        } finally {
+            GET_BY_NUMBER.record(start, rows);
         }
         return null;
     }
 
-    public boolean updateAccountBalance(int accountId, double newBalance) {
+    public Account getAccountById(int accountId) {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
+        String sql = BY_ID_SQL;
+        
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, accountId);
+            ResultSet rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                Account account = ACCOUNT.map(rs);
+                rows = 1;
+                return account;
+            }
+            rows = 0;
+            
+        } catch (SQLException e) {
+            System.err.println("Error getting account: " + e.getMessage());
+        } finally {
+            GET_BY_ID.record(start, rows);
+        }
+        return null;
+    }
+
+    /** Balances of all active accounts keyed by account_id, for bulk loading at startup. */
+    public Map<Integer, BigDecimal> getActiveBalances() throws SQLException {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
+        Map<Integer, BigDecimal> balances = new HashMap<>();
+        String sql = "SELECT account_id, balance FROM accounts WHERE is_active = TRUE";
+
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                balances.put(rs.getInt(1), rs.getBigDecimal(2));
+            }
+            rows = balances.size();
+        } finally {
+            GET_ACTIVE_BALANCES.record(start, rows);
+        }
+        return balances;
+    }
+
+    public boolean updateAccountBalance(int accountId, Money newBalance) {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
         String sql = "UPDATE accounts SET balance = ? WHERE account_id = ?";
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setDouble(1, newBalance);
+            stmt.setBigDecimal(1, newBalance.toBigDecimal());
             stmt.setInt(2, accountId);
             
             int rowsAffected = stmt.executeUpdate();
+            rows = rowsAffected;
             return rowsAffected > 0;
             
         } catch (SQLException e) {
             System.err.println("Error updating account balance: " + e.getMessage());
             return false;
+        } finally {
+            UPDATE_BALANCE.record(start, rows);
         }
     }
 
     public boolean createAccount(Account account) {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
         String sql = "INSERT INTO accounts (user_id, account_number, account_type, balance) VALUES (?, ?, ?, ?)";
         
         try (Connection conn = dbConnection.getConnection();
@@ -82,23 +171,26 @@ public class AccountDAO {
             stmt.setBigDecimal(4, account.getBalance());
             
             int rowsAffected = stmt.executeUpdate();
+            rows = rowsAffected;
             return rowsAffected > 0;
             
         } catch (SQLException e) {
             System.err.println("Error creating account: " + e.getMessage());
             return false;
+        } finally {
+            CREATE.record(start, rows);
         }
     }
 
-    private Account mapResultSetToAccount(ResultSet rs) throws SQLException {
+    private static Account mapAccount(ResultSet rs) throws SQLException {
         Account account = new Account();
-        account.setAccountId(rs.getInt("account_id"));
-        account.setUserId(rs.getInt("user_id"));
-        account.setAccountNumber(rs.getString("account_number"));
-        account.setAccountType(rs.getString("account_type"));
-        account.setBalance(rs.getBigDecimal("balance"));
-        account.setCreatedDate(rs.getTimestamp("created_date").toLocalDateTime());
-        account.setActive(rs.getBoolean("is_active"));
+        account.setAccountId(rs.getInt(1));
+        account.setUserId(rs.getInt(2));
+        account.setAccountNumber(rs.getString(3));
+        account.setAccountType(rs.getString(4));
+        account.setBalance(rs.getBigDecimal(5));
+        account.setCreatedDate(rs.getTimestamp(6).toLocalDateTime());
+        account.setActive(rs.getBoolean(7));
         return account;
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.banking.dao;
+
+import com.banking.database.DatabaseConnection;
+import com.banking.database.RetryPolicy;
+import com.banking.metrics.MetricsRegistry;
+import com.banking.metrics.OperationMetrics;
+import java.sql.*;
+
+/**
+ * Hi/lo block reservations (id_blocks). Each call hands out the next "hi"
+ * value of a named sequence; the caller owns every id in that block, so ids
+ * can be generated in memory without further round trips.
+ */
+public class IdBlockDAO {
+    private static final OperationMetrics RESERVE = MetricsRegistry.operation("IdBlockDAO.reserveBlock");
+
+    private static final String LOCK_SQL = "SELECT next_hi FROM id_blocks WHERE name = ? FOR UPDATE";
+    private static final String INIT_SQL = "INSERT INTO id_blocks (name, next_hi) VALUES (?, 1)";
+    private static final String ADVANCE_SQL = "UPDATE id_blocks SET next_hi = ? WHERE name = ?";
+
+    private DatabaseConnection dbConnection;
+    private RetryPolicy retryPolicy;
+
+    public IdBlockDAO() {
+        this.dbConnection = DatabaseConnection.getInstance();
+        this.retryPolicy = RetryPolicy.getInstance();
+    }
+
+    /** Reserves and returns the next block number of the sequence, creating it at 1 if missing. */
+    public long reserveBlock(String name) throws SQLException {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
+        try {
+            long hi = retryPolicy.execute(() -> advance(name));
+            rows = 1;
+            return hi;
+        } finally {
+            RESERVE.record(start, rows);
+        }
+    }
+
+    private long advance(String name) throws SQLException {
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                long hi = lockNextHi(conn, name);
+                try (PreparedStatement stmt = conn.prepareStatement(ADVANCE_SQL)) {
+                    stmt.setLong(1, hi + 1);
+                    stmt.setString(2, name);
+                    stmt.executeUpdate();
+                }
+                conn.commit();
+                return hi;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private long lockNextHi(Connection conn, String name) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(LOCK_SQL)) {
+            stmt.setString(1, name);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getLong(1);
+                }
+            }
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(INIT_SQL)) {
+            stmt.setString(1, name);
+            stmt.executeUpdate();
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,210 @@
+package com.banking.dao;
+
+import com.banking.database.DatabaseConnection;
+import com.banking.database.RetryPolicy;
+import com.banking.event.BalanceEventBus;
+import com.banking.metrics.MetricsRegistry;
+import com.banking.metrics.OperationMetrics;
+import com.banking.ledger.LedgerEntry;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Applies journaled ledger entries to the transactions and accounts tables.
+ * The ledger_checkpoint row is advanced in the same database transaction, so
+ * replaying entries that were already applied is a no-op.
+ */
+public class LedgerDAO {
+    private static final OperationMetrics GET_LAST_APPLIED = MetricsRegistry.operation("LedgerDAO.getLastAppliedSequence");
+    private static final OperationMetrics APPLY_BATCH = MetricsRegistry.operation("LedgerDAO.applyBatch");
+    private static final OperationMetrics RECORD_FAILED = MetricsRegistry.operation("LedgerDAO.recordFailed");
+    private static final OperationMetrics SKIP = MetricsRegistry.operation("LedgerDAO.skip");
+
+    private static final String CHECKPOINT_SQL = "SELECT last_applied_seq FROM ledger_checkpoint WHERE id = 1";
+    private static final String LOCK_CHECKPOINT_SQL = CHECKPOINT_SQL + " FOR UPDATE";
+    private static final String INIT_CHECKPOINT_SQL = "INSERT INTO ledger_checkpoint (id, last_applied_seq) VALUES (1, 0)";
+    private static final String ADVANCE_CHECKPOINT_SQL = "UPDATE ledger_checkpoint SET last_applied_seq = ? WHERE id = 1";
+    private static final String INSERT_SQL =
+            "INSERT INTO transactions (from_account_id, to_account_id, transaction_type, amount, description, transaction_date, " +
+            "idempotency_key, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    // A rejected entry may name an account that no longer exists; the row keeps only the ones that do.
+    private static final String INSERT_FAILED_SQL =
+            "INSERT INTO transactions (from_account_id, to_account_id, transaction_type, amount, description, transaction_date, " +
+            "idempotency_key, status) VALUES ((SELECT account_id FROM accounts WHERE account_id = ?), " +
+            "(SELECT account_id FROM accounts WHERE account_id = ?), ?, ?, ?, ?, ?, ?)";
+    private static final String BALANCE_SQL = "UPDATE accounts SET balance = balance + ? WHERE account_id = ?";
+
+    private DatabaseConnection dbConnection;
+    private RetryPolicy retryPolicy;
+
+    public LedgerDAO() {
+        this.dbConnection = DatabaseConnection.getInstance();
+        this.retryPolicy = RetryPolicy.getInstance();
+    }
+
+    public long getLastAppliedSequence() throws SQLException {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(CHECKPOINT_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            long sequence = rs.next() ? rs.getLong(1) : 0L;
+            rows = 1;
+            return sequence;
+        } finally {
+            GET_LAST_APPLIED.record(start, rows);
+        }
+    }
+
+    /**
+     * Applies the entries (in sequence order) as COMPLETED transfers in one
+     * database transaction and returns the new checkpoint.
+     */
+    public long applyBatch(List<LedgerEntry> entries) throws SQLException {
+        return apply(entries, true, APPLY_BATCH);
+    }
+
+    /**
+     * Records a single entry as a FAILED transaction without touching balances,
+     * for entries the database rejects on their own (e.g. the balance CHECK).
+     * The idempotency key is not stored, since the rejection may be the key
+     * itself colliding with an earlier transfer.
+     */
+    public long recordFailed(LedgerEntry entry) throws SQLException {
+        return apply(List.of(entry), false, RECORD_FAILED);
+    }
+
+    // The checkpoint makes a rerun skip whatever an earlier attempt committed; each attempt is measured.
+    private long apply(List<LedgerEntry> entries, boolean completed, OperationMetrics metrics) throws SQLException {
+        return retryPolicy.execute(() -> applyOnce(entries, completed, metrics));
+    }
+
+    private long applyOnce(List<LedgerEntry> entries, boolean completed, OperationMetrics metrics)
+            throws SQLException {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                long applied = lockCheckpoint(conn);
+                long last = applied;
+                Map<Integer, Long> deltas = new TreeMap<>();
+
+                try (PreparedStatement stmt = conn.prepareStatement(completed ? INSERT_SQL : INSERT_FAILED_SQL)) {
+                    for (LedgerEntry entry : entries) {
+                        if (entry.getSequence() <= applied) {
+                            continue;
+                        }
+                        stmt.setInt(1, entry.getFromAccountId());
+                        stmt.setInt(2, entry.getToAccountId());
+                        stmt.setString(3, entry.getTransactionType());
+                        stmt.setBigDecimal(4, entry.getAmount());
+                        stmt.setString(5, entry.getDescription());
+                        stmt.setTimestamp(6, new Timestamp(entry.getTimestampMillis()));
+                        stmt.setString(7, completed ? entry.getIdempotencyKey() : null);
+                        stmt.setString(8, completed ? "COMPLETED" : "FAILED");
+                        stmt.addBatch();
+
+                        if (completed) {
+                            deltas.merge(entry.getFromAccountId(), -entry.getAmountCents(), Long::sum);
+                            deltas.merge(entry.getToAccountId(), entry.getAmountCents(), Long::sum);
+                        }
+                        last = Math.max(last, entry.getSequence());
+                    }
+                    if (last == applied) {
+                        conn.rollback();
+                        rows = 0;
+                        return applied;
+                    }
+                    stmt.executeBatch();
+                }
+
+                // TreeMap iteration keeps row locks in account_id order.
+                try (PreparedStatement stmt = conn.prepareStatement(BALANCE_SQL)) {
+                    for (Map.Entry<Integer, Long> delta : deltas.entrySet()) {
+                        if (delta.getValue() == 0) {
+                            continue;
+                        }
+                        stmt.setBigDecimal(1, BigDecimal.valueOf(delta.getValue(), 2));
+                        stmt.setInt(2, delta.getKey());
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+
+                try (PreparedStatement stmt = conn.prepareStatement(ADVANCE_CHECKPOINT_SQL)) {
+                    stmt.setLong(1, last);
+                    stmt.executeUpdate();
+                }
+
+                // Drawn while the account rows are locked, so it orders this commit against other writers.
+                long version = completed ? BalanceEventBus.getInstance().nextVersion() : 0;
+                conn.commit();
+                for (LedgerEntry entry : entries) {
+                    if (entry.getSequence() > applied) {
+                        entry.setBalanceVersion(version);
+                    }
+                }
+                rows = entries.size();
+                return last;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } finally {
+            metrics.record(start, rows);
+        }
+    }
+
+    /**
+     * Advances the checkpoint past an entry without writing anything, for an
+     * entry whose idempotency key is already stored with an earlier transfer.
+     */
+    public long skip(LedgerEntry entry) throws SQLException {
+        return retryPolicy.execute(() -> skipOnce(entry));
+    }
+
+    private long skipOnce(LedgerEntry entry) throws SQLException {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                long applied = lockCheckpoint(conn);
+                if (entry.getSequence() <= applied) {
+                    conn.rollback();
+                    rows = 0;
+                    return applied;
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(ADVANCE_CHECKPOINT_SQL)) {
+                    stmt.setLong(1, entry.getSequence());
+                    stmt.executeUpdate();
+                }
+                conn.commit();
+                rows = 1;
+                return entry.getSequence();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } finally {
+            SKIP.record(start, rows);
+        }
+    }
+
+    private long lockCheckpoint(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(LOCK_CHECKPOINT_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                return rs.getLong(1);
+            }
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(INIT_CHECKPOINT_SQL)) {
+            stmt.executeUpdate();
+        }
+        return 0L;
+    }
+}
@@ -0,0 +1,37 @@
+package com.banking.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * An explicit select list together with the mapper that reads it. Because
+ * the column order is fixed here, the mapper reads by position (1, 2, ...)
+ * instead of having the driver look every column up by name on every row,
+ * and queries fetch only the columns a use case needs.
+ */
+public final class Projection<T> {
+    private final String columns;
+    private final RowMapper<T> mapper;
+
+    /**
+     * @param columns comma-separated select list, in the order {@code mapper} reads it
+     * @param mapper  reads the row by column index
+     */
+    public Projection(String columns, RowMapper<T> mapper) {
+        this.columns = columns;
+        this.mapper = mapper;
+    }
+
+    public String getColumns() {
+        return columns;
+    }
+
+    public T map(ResultSet rs) throws SQLException {
+        return mapper.map(rs);
+    }
+
+    @Override
+    public String toString() {
+        return columns;
+    }
+}
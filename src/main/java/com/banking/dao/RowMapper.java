@@ -0,0 +1,10 @@
+package com.banking.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/** Builds an object from the current row of a result set. */
+@FunctionalInterface
+public interface RowMapper<T> {
+    T map(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,192 @@
+package com.banking.dao;
+
+import com.banking.database.DatabaseConnection;
+import com.banking.database.RetryPolicy;
+import com.banking.metrics.MetricsRegistry;
+import com.banking.metrics.OperationMetrics;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Credit slots of hot accounts (account_sub_balances). Credits to a hot
+ * account update one slot row instead of the accounts row, so concurrent
+ * payers do not queue on a single row lock. Folding moves the slot totals
+ * into accounts.balance.
+ *
+ * Lock order: accounts rows (by account_id) are always locked before slot
+ * rows, and slot rows in (account_id, slot) order.
+ */
+public class SubBalanceDAO {
+    private static final OperationMetrics GET_HOT_ACCOUNTS = MetricsRegistry.operation("SubBalanceDAO.getHotAccounts");
+    private static final OperationMetrics ENABLE_HOT_ACCOUNT = MetricsRegistry.operation("SubBalanceDAO.enableHotAccount");
+    private static final OperationMetrics FOLD = MetricsRegistry.operation("SubBalanceDAO.fold");
+    private static final OperationMetrics DISABLE_HOT_ACCOUNT = MetricsRegistry.operation("SubBalanceDAO.disableHotAccount");
+
+    static final String CREDIT_SLOT_SQL =
+            "UPDATE account_sub_balances SET balance = balance + ? WHERE account_id = ? AND slot = ?";
+    private static final String LOCK_ACCOUNT_SQL =
+            "SELECT balance FROM accounts WHERE account_id = ? FOR UPDATE";
+    private static final String LOCK_SLOTS_SQL =
+            "SELECT balance FROM account_sub_balances WHERE account_id = ? ORDER BY slot FOR UPDATE";
+    private static final String CLEAR_SLOTS_SQL =
+            "UPDATE account_sub_balances SET balance = 0 WHERE account_id = ? AND balance <> 0";
+    private static final String DELETE_SLOTS_SQL =
+            "DELETE FROM account_sub_balances WHERE account_id = ?";
+    private static final String ADD_TO_ACCOUNT_SQL =
+            "UPDATE accounts SET balance = balance + ? WHERE account_id = ?";
+
+    private DatabaseConnection dbConnection;
+    private RetryPolicy retryPolicy;
+
+    public SubBalanceDAO() {
+        this.dbConnection = DatabaseConnection.getInstance();
+        this.retryPolicy = RetryPolicy.getInstance();
+    }
+
+    /** Hot account ids mapped to their number of slots. */
+    public Map<Integer, Integer> getHotAccounts() throws SQLException {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
+        Map<Integer, Integer> hotAccounts = new HashMap<>();
+        String sql = "SELECT account_id, COUNT(*) FROM account_sub_balances GROUP BY account_id";
+
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                hotAccounts.put(rs.getInt(1), rs.getInt(2));
+            }
+            rows = hotAccounts.size();
+        } finally {
+            GET_HOT_ACCOUNTS.record(start, rows);
+        }
+        return hotAccounts;
+    }
+
+    /** Creates slots 0..slots-1 for the account, keeping any that already exist. */
+    public void enableHotAccount(int accountId, int slots) throws SQLException {
+        String existingSql = "SELECT slot FROM account_sub_balances WHERE account_id = ?";
+        String insertSql = "INSERT INTO account_sub_balances (account_id, slot, balance) VALUES (?, ?, 0.00)";
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
+
+        try (Connection conn = dbConnection.getConnection()) {
+            Set<Integer> existing = new HashSet<>();
+            try (PreparedStatement stmt = conn.prepareStatement(existingSql)) {
+                stmt.setInt(1, accountId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        existing.add(rs.getInt(1));
+                    }
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(insertSql)) {
+                int added = 0;
+                for (int slot = 0; slot < slots; slot++) {
+                    if (!existing.contains(slot)) {
+                        stmt.setInt(1, accountId);
+                        stmt.setInt(2, slot);
+                        stmt.addBatch();
+                        added++;
+                    }
+                }
+                stmt.executeBatch();
+                rows = added;
+            }
+        } finally {
+            ENABLE_HOT_ACCOUNT.record(start, rows);
+        }
+    }
+
+    /** Folds the account's slots into its balance in one transaction; returns the amount moved. */
+    public BigDecimal fold(int accountId) throws SQLException {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
+        try {
+            BigDecimal folded = retryPolicy.execute(() -> runFold(accountId, false));
+            rows = folded.signum() == 0 ? 0 : 1;
+            return folded;
+        } finally {
+            FOLD.record(start, rows);
+        }
+    }
+
+    /**
+     * Folds the account's slots into its balance and deletes them in one
+     * transaction, making it a normal account again; returns the amount moved.
+     */
+    public BigDecimal disableHotAccount(int accountId) throws SQLException {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
+        try {
+            BigDecimal folded = retryPolicy.execute(() -> runFold(accountId, true));
+            rows = 1;
+            return folded;
+        } finally {
+            DISABLE_HOT_ACCOUNT.record(start, rows);
+        }
+    }
+
+    private BigDecimal runFold(int accountId, boolean removeSlots) throws SQLException {
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement stmt = conn.prepareStatement(LOCK_ACCOUNT_SQL)) {
+                    stmt.setInt(1, accountId);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (!rs.next()) {
+                            conn.rollback();
+                            return BigDecimal.ZERO;
+                        }
+                    }
+                }
+                BigDecimal folded = foldLocked(conn, accountId);
+                if (removeSlots) {
+                    try (PreparedStatement stmt = conn.prepareStatement(DELETE_SLOTS_SQL)) {
+                        stmt.setInt(1, accountId);
+                        stmt.executeUpdate();
+                    }
+                }
+                conn.commit();
+                return folded;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Moves the slot totals into accounts.balance inside the caller's
+     * transaction, which must already hold the account row lock.
+     */
+    static BigDecimal foldLocked(Connection conn, int accountId) throws SQLException {
+        BigDecimal total = BigDecimal.ZERO;
+        try (PreparedStatement stmt = conn.prepareStatement(LOCK_SLOTS_SQL)) {
+            stmt.setInt(1, accountId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    total = total.add(rs.getBigDecimal(1));
+                }
+            }
+        }
+        if (total.signum() == 0) {
+            return total;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(ADD_TO_ACCOUNT_SQL)) {
+            stmt.setBigDecimal(1, total);
+            stmt.setInt(2, accountId);
+            stmt.executeUpdate();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(CLEAR_SLOTS_SQL)) {
+            stmt.setInt(1, accountId);
+            stmt.executeUpdate();
+        }
+        return total;
+    }
+}
@@ -1,12 +1,25 @@
 package com.banking.dao;
 
 import com.banking.database.DatabaseConnection;
+import com.banking.metrics.MetricsRegistry;
+import com.banking.metrics.OperationMetrics;
+import com.banking.model.HistoryCursor;
 import com.banking.model.Transaction;
+import com.banking.model.TransactionPage;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 public class TransactionDAO {
+    private static final OperationMetrics CREATE = MetricsRegistry.operation("TransactionDAO.createTransaction");
+    private static final OperationMetrics GET_PAGE = MetricsRegistry.operation("TransactionDAO.getTransactionPage");
+    private static final OperationMetrics GET_SINCE = MetricsRegistry.operation("TransactionDAO.getTransactionsSince");
+    private static final OperationMetrics STREAM = MetricsRegistry.operation("TransactionDAO.streamTransactionsByAccountId");
+    private static final OperationMetrics GET_BY_KEY = MetricsRegistry.operation("TransactionDAO.getTransactionByIdempotencyKey");
+    private static final OperationMetrics UPDATE_STATUS = MetricsRegistry.operation("TransactionDAO.updateTransactionStatus");
+
     private DatabaseConnection dbConnection;
 
     public TransactionDAO() {
@@ -14,6 +27,8 @@ public class TransactionDAO {
     }
 
     public boolean createTransaction(Transaction transaction) {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
         String sql = "INSERT INTO transactions (from_account_id, to_account_id, transaction_type, amount, description) VALUES (?, ?, ?, ?, ?)";
         
         try (Connection conn = dbConnection.getConnection();
@@ -26,6 +41,7 @@ public class TransactionDAO {
             stmt.setString(5, transaction.getDescription());
             
             int rowsAffected = stmt.executeUpdate();
+            rows = rowsAffected;
             
             if (rowsAffected > 0) {
                 ResultSet generatedKeys = stmt.getGeneratedKeys();
@@ -36,33 +52,231 @@ public class TransactionDAO {
             }
             
         } catch (SQLException e) {
+            rows = OperationMetrics.FAILED;
             System.err.println("Error creating transaction: " + e.getMessage());
+        } finally {
+            CREATE.record(start, rows);
         }
         return false;
     }
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int DASHBOARD_DESCRIPTION_LENGTH = 100;
+
+    private static final String SUMMARY_COLUMNS =
+            "transaction_id, from_account_id, to_account_id, transaction_type, amount, transaction_date, status";
+
+    /** Every column; for lookups and statement exports. */
+    public static final Projection<Transaction> FULL = new Projection<>(
+            SUMMARY_COLUMNS + ", description, idempotency_key", rs -> {
+                Transaction transaction = mapSummary(rs);
+                transaction.setDescription(rs.getString(8));
+                transaction.setIdempotencyKey(rs.getString(9));
+                return transaction;
+            });
+    /** History rows without the description text or idempotency key. */
+    public static final Projection<Transaction> SUMMARY = new Projection<>(
+            SUMMARY_COLUMNS, TransactionDAO::mapSummary);
+    /** Summary rows plus as much of the description as fits in a dashboard table cell. */
+    public static final Projection<Transaction> DASHBOARD = new Projection<>(
+            SUMMARY_COLUMNS + ", LEFT(description, " + DASHBOARD_DESCRIPTION_LENGTH + ") AS description", rs -> {
+                Transaction transaction = mapSummary(rs);
+                transaction.setDescription(rs.getString(8));
+                return transaction;
+            });
+
+    private static final String BY_IDEMPOTENCY_KEY_SQL =
+            "SELECT " + FULL.getColumns() + " FROM transactions WHERE idempotency_key = ?";
+
+    // History statements are built once per projection.
+    private static final ConcurrentHashMap<Projection<Transaction>, HistoryQueries> HISTORY_QUERIES =
+            new ConcurrentHashMap<>();
+
+    private static final class HistoryQueries {
+        private static final String BEFORE_CURSOR =
+                " AND transaction_date <= ? AND (transaction_date < ? OR transaction_id < ?)";
+        private static final String NEWEST_FIRST = " ORDER BY transaction_date DESC, transaction_id DESC";
+        // Transaction ids only grow, so "newer than the last one seen" is a range scan on the
+        // (account, primary key) tail of the plain from/to account indexes.
+        private static final String NEWEST_IDS = " ORDER BY transaction_id DESC";
+
+        private final String firstPage;
+        private final String nextPage;
+        private final String since;
+        private final String stream;
+
+        private HistoryQueries(Projection<Transaction> projection) {
+            // Each branch of the UNION ALL can be served from its own (account, transaction_date)
+            // index; the second branch skips self-transfers so they are not returned twice.
+            String outgoing = "SELECT " + projection.getColumns() + " FROM transactions WHERE from_account_id = ?";
+            String incoming = "SELECT " + projection.getColumns() + " FROM transactions"
+                    + " WHERE to_account_id = ? AND (from_account_id IS NULL OR from_account_id <> ?)";
+
+            firstPage = "(" + outgoing + NEWEST_FIRST + " LIMIT ?) UNION ALL (" + incoming + NEWEST_FIRST + " LIMIT ?)"
+                    + NEWEST_FIRST + " LIMIT ?";
+            nextPage = "(" + outgoing + BEFORE_CURSOR + NEWEST_FIRST + " LIMIT ?) UNION ALL ("
+                    + incoming + BEFORE_CURSOR + NEWEST_FIRST + " LIMIT ?)" + NEWEST_FIRST + " LIMIT ?";
+            since = "(" + outgoing + " AND transaction_id > ?" + NEWEST_IDS + " LIMIT ?) UNION ALL ("
+                    + incoming + " AND transaction_id > ?" + NEWEST_IDS + " LIMIT ?)" + NEWEST_FIRST + " LIMIT ?";
+            stream = "(" + outgoing + ") UNION ALL (" + incoming + ")" + NEWEST_FIRST;
+        }
+    }
+
+    private static HistoryQueries historyQueries(Projection<Transaction> projection) {
+        return HISTORY_QUERIES.computeIfAbsent(projection, HistoryQueries::new);
+    }
+
     public List<Transaction> getTransactionsByAccountId(int accountId) {
+        return getTransactionsByAccountId(accountId, FULL);
+    }
+
+    public List<Transaction> getTransactionsByAccountId(int accountId, Projection<Transaction> projection) {
+        return getTransactionPage(accountId, null, DEFAULT_PAGE_SIZE, projection).getTransactions();
+    }
+
+    /**
+     * Returns up to {@code limit} transactions older than {@code before}
+     * (or the newest ones when {@code before} is null), newest first.
+     */
+    public TransactionPage getTransactionPage(int accountId, HistoryCursor before, int limit) {
+        return getTransactionPage(accountId, before, limit, FULL);
+    }
+
+    public TransactionPage getTransactionPage(int accountId, HistoryCursor before, int limit,
+                                              Projection<Transaction> projection) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
         List<Transaction> transactions = new ArrayList<>();
-        String sql = "SELECT * FROM transactions WHERE from_account_id = ? OR to_account_id = ? ORDER BY transaction_date DESC LIMIT 20";
-        
+        int fetch = limit + 1;
+        HistoryQueries queries = historyQueries(projection);
+
         try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, accountId);
-            stmt.setInt(2, accountId);
+             PreparedStatement stmt = conn.prepareStatement(before == null ? queries.firstPage : queries.nextPage)) {
+
+            int index = 1;
+            stmt.setInt(index++, accountId);
+            index = bindCursor(stmt, index, before);
+            stmt.setInt(index++, fetch);
+            stmt.setInt(index++, accountId);
+            stmt.setInt(index++, accountId);
+            index = bindCursor(stmt, index, before);
+            stmt.setInt(index++, fetch);
+            stmt.setInt(index, fetch);
             ResultSet rs = stmt.executeQuery();
-            
+
             while (rs.next()) {
-                transactions.add(mapResultSetToTransaction(rs));
+                transactions.add(projection.map(rs));
             }
-            
+            rows = transactions.size();
+
         } catch (SQLException e) {
             System.err.println("Error getting transactions: " + e.getMessage());
+        } finally {
+            GET_PAGE.record(start, rows);
+        }
+
+        HistoryCursor next = null;
+        if (transactions.size() > limit) {
+            transactions = transactions.subList(0, limit);
+            next = HistoryCursor.after(transactions.get(limit - 1));
+        }
+        return new TransactionPage(transactions, next);
+    }
+
+    /**
+     * Returns up to {@code limit} of the account's transactions with an id
+     * greater than {@code afterTransactionId}, newest first.
+     */
+    public List<Transaction> getTransactionsSince(int accountId, int afterTransactionId, int limit) {
+        return getTransactionsSince(accountId, afterTransactionId, limit, FULL);
+    }
+
+    public List<Transaction> getTransactionsSince(int accountId, int afterTransactionId, int limit,
+                                                  Projection<Transaction> projection) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
+        List<Transaction> transactions = new ArrayList<>();
+
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(historyQueries(projection).since)) {
+
+            stmt.setInt(1, accountId);
+            stmt.setInt(2, afterTransactionId);
+            stmt.setInt(3, limit);
+            stmt.setInt(4, accountId);
+            stmt.setInt(5, accountId);
+            stmt.setInt(6, afterTransactionId);
+            stmt.setInt(7, limit);
+            stmt.setInt(8, limit);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                transactions.add(projection.map(rs));
+            }
+            rows = transactions.size();
+
+        } catch (SQLException e) {
+            System.err.println("Error getting new transactions: " + e.getMessage());
+        } finally {
+            GET_SINCE.record(start, rows);
         }
         return transactions;
     }
 
+    /**
+     * Streams an account's full history, newest first, to {@code consumer}
+     * without materializing it. On MySQL this uses a forward-only, row-by-row
+     * streaming result set, so the consumer must not issue queries on the same
+     * connection (DAO calls borrow their own). Returns the number of rows.
+     */
+    public int streamTransactionsByAccountId(int accountId, Consumer<Transaction> consumer) throws SQLException {
+        long start = System.nanoTime();
+        int count = 0;
+        boolean completed = false;
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(historyQueries(FULL).stream,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            boolean mysql = conn.getMetaData().getDriverName().toLowerCase().contains("mysql");
+            stmt.setFetchSize(mysql ? Integer.MIN_VALUE : 500);
+            stmt.setInt(1, accountId);
+            stmt.setInt(2, accountId);
+            stmt.setInt(3, accountId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(FULL.map(rs));
+                    count++;
+                }
+            }
+            completed = true;
+        } finally {
+            // Includes the time spent in the consumer.
+            STREAM.record(start, completed ? count : OperationMetrics.FAILED);
+        }
+        return count;
+    }
+
+    private int bindCursor(PreparedStatement stmt, int index, HistoryCursor cursor) throws SQLException {
+        if (cursor == null) {
+            return index;
+        }
+        Timestamp date = Timestamp.valueOf(cursor.getTransactionDate());
+        stmt.setTimestamp(index++, date);
+        stmt.setTimestamp(index++, date);
+        stmt.setInt(index++, cursor.getTransactionId());
+        return index;
+    }
+
     public boolean updateTransactionStatus(int transactionId, String status) {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
         String sql = "UPDATE transactions SET status = ? WHERE transaction_id = ?";
         
         try (Connection conn = dbConnection.getConnection();
@@ -72,24 +286,54 @@ public class TransactionDAO {
             stmt.setInt(2, transactionId);
             
             int rowsAffected = stmt.executeUpdate();
+            rows = rowsAffected;
             return rowsAffected > 0;
             
         } catch (SQLException e) {
             System.err.println("Error updating transaction status: " + e.getMessage());
             return false;
+        } finally {
+            UPDATE_STATUS.record(start, rows);
+        }
+    }
+
+    /** The transaction written with this idempotency key, or null if there is none. */
+    public Transaction getTransactionByIdempotencyKey(String idempotencyKey) {
+        String sql = BY_IDEMPOTENCY_KEY_SQL;
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
+
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, idempotencyKey);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                Transaction transaction = FULL.map(rs);
+                rows = 1;
+                return transaction;
+            }
+            rows = 0;
+
+        } catch (SQLException e) {
+            System.err.println("Error getting transaction by idempotency key: " + e.getMessage());
+        } finally {
+            GET_BY_KEY.record(start, rows);
         }
+        return null;
     }
 
-    private Transaction mapResultSetToTransaction(ResultSet rs) throws SQLException {
+    // Reads the SUMMARY_COLUMNS prefix shared by every transaction projection.
+    private static Transaction mapSummary(ResultSet rs) throws SQLException {
         Transaction transaction = new Transaction();
-        transaction.setTransactionId(rs.getInt("transaction_id"));
-        transaction.setFromAccountId(rs.getInt("from_account_id"));
-        transaction.setToAccountId(rs.getInt("to_account_id"));
-        transaction.setTransactionType(rs.getString("transaction_type"));
-        transaction.setAmount(rs.getBigDecimal("amount"));
-        transaction.setDescription(rs.getString("description"));
-        transaction.setTransactionDate(rs.getTimestamp("transaction_date").toLocalDateTime());
-        transaction.setStatus(rs.getString("status"));
+        transaction.setTransactionId(rs.getInt(1));
+        transaction.setFromAccountId(rs.getInt(2));
+        transaction.setToAccountId(rs.getInt(3));
+        transaction.setTransactionType(rs.getString(4));
+        transaction.setAmount(rs.getBigDecimal(5));
+        transaction.setTransactionDate(rs.getTimestamp(6).toLocalDateTime());
+        transaction.setStatus(rs.getString(7));
         return transaction;
     }
-}
+}
\ No newline at end of file
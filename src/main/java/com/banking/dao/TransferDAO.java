@@ -0,0 +1,465 @@
+package com.banking.dao;
+
+import com.banking.database.DatabaseConnection;
+import com.banking.database.RetryPolicy;
+import com.banking.event.BalanceChange;
+import com.banking.event.BalanceEventBus;
+import com.banking.metrics.MetricsRegistry;
+import com.banking.metrics.OperationMetrics;
+import com.banking.model.Money;
+import com.banking.model.Transaction;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Executes a transfer as a single database transaction: both account rows are
+ * locked in account_id order, balances are applied as relative updates and the
+ * transaction row is written already COMPLETED, followed by one commit.
+ *
+ * Credits to hot accounts (see {@link SubBalanceDAO}) go to one of the
+ * account's slot rows and a single transfer does not lock its accounts row;
+ * debits from a hot account fold its slots into the balance first. A hot
+ * source always credits destination rows directly, which keeps slot locks
+ * last in the lock order.
+ * A batch locks all of its accounts rows in id order, hot destinations
+ * included, so one pass both locks them and finds the missing ones.
+ *
+ * A transfer that loses a deadlock or lock wait is rolled back and rerun
+ * through {@link RetryPolicy}.
+ */
+public class TransferDAO {
+    public enum Outcome {
+        COMPLETED,
+        INSUFFICIENT_FUNDS,
+        ACCOUNT_NOT_FOUND,
+        /** A transaction with the same idempotency key already exists; nothing was changed. */
+        DUPLICATE
+    }
+
+    /** Picks the credit slot for a hot account, or returns -1 for a normal account. */
+    public interface CreditSlots {
+        int slotFor(int accountId);
+    }
+
+    private static final String LOCK_ONE_SQL =
+            "SELECT account_id, balance FROM accounts WHERE account_id = ? AND is_active = TRUE FOR UPDATE";
+    private static final String EXISTS_SQL =
+            "SELECT account_id FROM accounts WHERE account_id = ? AND is_active = TRUE";
+    private static final String LOCK_SQL =
+            "SELECT account_id, balance FROM accounts WHERE account_id IN (?, ?) AND is_active = TRUE " +
+            "ORDER BY account_id FOR UPDATE";
+    // A batch locks its rows with one of these, padded by repeating an id, so the
+    // statement cache sees three statements whatever the batch size.
+    private static final int[] LOCK_CHUNK_SIZES = {8, 32, 128};
+    private static final String[] LOCK_CHUNK_SQL = {
+            lockChunkSql(LOCK_CHUNK_SIZES[0]), lockChunkSql(LOCK_CHUNK_SIZES[1]), lockChunkSql(LOCK_CHUNK_SIZES[2])};
+    private static final String APPLY_SQL =
+            "UPDATE accounts SET balance = balance + CASE account_id WHEN ? THEN -? WHEN ? THEN ? END " +
+            "WHERE account_id IN (?, ?)";
+    private static final String DEBIT_SQL = "UPDATE accounts SET balance = balance - ? WHERE account_id = ?";
+    private static final String CREDIT_SQL = "UPDATE accounts SET balance = balance + ? WHERE account_id = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO transactions (from_account_id, to_account_id, transaction_type, amount, description, " +
+            "idempotency_key, status) VALUES (?, ?, ?, ?, ?, ?, 'COMPLETED')";
+
+    private static final OperationMetrics TRANSFER = MetricsRegistry.operation("TransferDAO.transfer");
+    private static final OperationMetrics TRANSFER_BATCH = MetricsRegistry.operation("TransferDAO.transferBatch");
+
+    // Balances are compared in cents; no real balance can be this low.
+    private static final long MISSING = Long.MIN_VALUE;
+
+    private DatabaseConnection dbConnection;
+    private RetryPolicy retryPolicy;
+    private final CreditSlots creditSlots;
+
+    public TransferDAO() {
+        this(null);
+    }
+
+    public TransferDAO(CreditSlots creditSlots) {
+        this.dbConnection = DatabaseConnection.getInstance();
+        this.retryPolicy = RetryPolicy.getInstance();
+        this.creditSlots = creditSlots;
+    }
+
+    /**
+     * Runs the transfer described by {@code transaction}. On success the
+     * generated transaction id and COMPLETED status are written back into it.
+     */
+    public Outcome transfer(Transaction transaction) throws SQLException {
+        return transfer(transaction, null);
+    }
+
+    /**
+     * As {@link #transfer(Transaction)}; on success also adds the committed
+     * balances of both accounts to {@code balancesAfter} when it is non-null.
+     */
+    public Outcome transfer(Transaction transaction, List<BalanceChange> balancesAfter) throws SQLException {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
+        try {
+            Outcome outcome = retryPolicy.execute(() -> runTransfer(transaction, balancesAfter));
+            rows = outcome == Outcome.COMPLETED ? 1 : 0;
+            return outcome;
+        } finally {
+            TRANSFER.record(start, rows);
+        }
+    }
+
+    private Outcome runTransfer(Transaction transaction, List<BalanceChange> balancesAfter) throws SQLException {
+        int fromAccountId = transaction.getFromAccountId();
+        int toAccountId = transaction.getToAccountId();
+        long amountCents = transaction.getAmountCents();
+        boolean fromHot = slotFor(fromAccountId) >= 0;
+        int toSlot = fromHot ? -1 : slotFor(toAccountId);
+
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                long fromBalance = MISSING;
+                long toBalance = MISSING;
+
+                if (toSlot < 0) {
+                    try (PreparedStatement stmt = conn.prepareStatement(LOCK_SQL)) {
+                        stmt.setInt(1, fromAccountId);
+                        stmt.setInt(2, toAccountId);
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            while (rs.next()) {
+                                int accountId = rs.getInt(1);
+                                if (accountId == fromAccountId) {
+                                    fromBalance = Money.toCents(rs.getBigDecimal(2));
+                                }
+                                if (accountId == toAccountId) {
+                                    toBalance = Money.toCents(rs.getBigDecimal(2));
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    fromBalance = lockBalance(conn, fromAccountId);
+                    if (exists(conn, toAccountId)) {
+                        toBalance = 0;
+                    }
+                }
+
+                if (fromBalance == MISSING || toBalance == MISSING) {
+                    conn.rollback();
+                    return Outcome.ACCOUNT_NOT_FOUND;
+                }
+                if (fromHot) {
+                    fromBalance = Money.add(fromBalance, Money.toCents(SubBalanceDAO.foldLocked(conn, fromAccountId)));
+                }
+                if (fromBalance < amountCents) {
+                    conn.rollback();
+                    return Outcome.INSUFFICIENT_FUNDS;
+                }
+
+                // The only BigDecimal on this path, for binding.
+                BigDecimal amount = Money.toBigDecimal(amountCents);
+
+                if (toSlot < 0) {
+                    try (PreparedStatement stmt = conn.prepareStatement(APPLY_SQL)) {
+                        stmt.setInt(1, fromAccountId);
+                        stmt.setBigDecimal(2, amount);
+                        stmt.setInt(3, toAccountId);
+                        stmt.setBigDecimal(4, amount);
+                        stmt.setInt(5, fromAccountId);
+                        stmt.setInt(6, toAccountId);
+                        if (stmt.executeUpdate() != 2) {
+                            conn.rollback();
+                            return Outcome.ACCOUNT_NOT_FOUND;
+                        }
+                    }
+                } else {
+                    try (PreparedStatement stmt = conn.prepareStatement(DEBIT_SQL)) {
+                        stmt.setBigDecimal(1, amount);
+                        stmt.setInt(2, fromAccountId);
+                        stmt.executeUpdate();
+                    }
+                    creditSlot(conn, toAccountId, toSlot, amount);
+                }
+
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                    stmt.setInt(1, fromAccountId);
+                    stmt.setInt(2, toAccountId);
+                    stmt.setString(3, transaction.getTransactionType());
+                    stmt.setBigDecimal(4, amount);
+                    stmt.setString(5, transaction.getDescription());
+                    stmt.setString(6, transaction.getIdempotencyKey());
+                    stmt.executeUpdate();
+                    try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                        if (generatedKeys.next()) {
+                            transaction.setTransactionId(generatedKeys.getInt(1));
+                        }
+                    }
+                } catch (SQLException e) {
+                    // The unique key makes a replayed submission fail here, before anything commits.
+                    if (transaction.getIdempotencyKey() != null && isDuplicateKey(e)) {
+                        conn.rollback();
+                        return Outcome.DUPLICATE;
+                    }
+                    throw e;
+                }
+
+                long version = balancesAfter == null ? 0 : BalanceEventBus.getInstance().nextVersion();
+                conn.commit();
+                transaction.setStatus("COMPLETED");
+                if (balancesAfter != null) {
+                    balancesAfter.add(new BalanceChange(fromAccountId,
+                            Money.toBigDecimal(fromBalance - amountCents), version));
+                    // A hot account's total is only known after its slots are folded.
+                    if (toSlot < 0) {
+                        balancesAfter.add(new BalanceChange(toAccountId,
+                                Money.toBigDecimal(Money.add(toBalance, amountCents)), version));
+                    }
+                }
+                return Outcome.COMPLETED;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Runs many transfers out of one source account as a single database
+     * transaction: the source is debited once with the aggregate, credits are
+     * batched per destination and all transactions rows go out in one JDBC
+     * batch. Items whose destination does not exist are marked FAILED and
+     * skipped; the rest are written back with their id and COMPLETED status.
+     */
+    public Outcome transferBatch(int fromAccountId, List<Transaction> transactions) throws SQLException {
+        return transferBatch(fromAccountId, transactions, null);
+    }
+
+    /**
+     * As {@link #transferBatch(int, List)}; on success also adds the committed
+     * balances of every changed account to {@code balancesAfter} when it is non-null.
+     */
+    public Outcome transferBatch(int fromAccountId, List<Transaction> transactions,
+                                 List<BalanceChange> balancesAfter) throws SQLException {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
+        try {
+            Outcome outcome = retryPolicy.execute(() -> runBatch(fromAccountId, transactions, balancesAfter));
+            rows = 0;
+            for (Transaction transaction : transactions) {
+                if ("COMPLETED".equals(transaction.getStatus())) {
+                    rows++;
+                }
+            }
+            return outcome;
+        } finally {
+            TRANSFER_BATCH.record(start, rows);
+        }
+    }
+
+    private Outcome runBatch(int fromAccountId, List<Transaction> transactions,
+                             List<BalanceChange> balancesAfter) throws SQLException {
+        boolean fromHot = slotFor(fromAccountId) >= 0;
+        TreeSet<Integer> accountIds = new TreeSet<>();
+        Map<Integer, Integer> hotSlots = new TreeMap<>();
+        accountIds.add(fromAccountId);
+        for (Transaction transaction : transactions) {
+            int toAccountId = transaction.getToAccountId();
+            // Hot destinations are locked and checked with the rest, but credited through a slot.
+            if (accountIds.add(toAccountId) && !fromHot) {
+                int slot = slotFor(toAccountId);
+                if (slot >= 0) {
+                    hotSlots.put(toAccountId, slot);
+                }
+            }
+        }
+
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Map<Integer, Long> balances = lockBalances(conn, new ArrayList<>(accountIds));
+                if (!balances.containsKey(fromAccountId)) {
+                    conn.rollback();
+                    return Outcome.ACCOUNT_NOT_FOUND;
+                }
+                if (fromHot) {
+                    balances.put(fromAccountId, Money.add(balances.get(fromAccountId),
+                            Money.toCents(SubBalanceDAO.foldLocked(conn, fromAccountId))));
+                }
+
+                List<Transaction> accepted = new ArrayList<>(transactions.size());
+                Map<Integer, Long> credits = new TreeMap<>();
+                long total = 0;
+                for (Transaction transaction : transactions) {
+                    int toAccountId = transaction.getToAccountId();
+                    if (!balances.containsKey(toAccountId)) {
+                        transaction.setStatus("FAILED");
+                        continue;
+                    }
+                    accepted.add(transaction);
+                    credits.merge(transaction.getToAccountId(), transaction.getAmountCents(), Money::add);
+                    total = Money.add(total, transaction.getAmountCents());
+                }
+
+                if (accepted.isEmpty()) {
+                    conn.rollback();
+                    return Outcome.COMPLETED;
+                }
+                if (balances.get(fromAccountId) < total) {
+                    conn.rollback();
+                    return Outcome.INSUFFICIENT_FUNDS;
+                }
+
+                try (PreparedStatement stmt = conn.prepareStatement(DEBIT_SQL)) {
+                    stmt.setBigDecimal(1, Money.toBigDecimal(total));
+                    stmt.setInt(2, fromAccountId);
+                    stmt.executeUpdate();
+                }
+
+                try (PreparedStatement stmt = conn.prepareStatement(CREDIT_SQL)) {
+                    for (Map.Entry<Integer, Long> credit : credits.entrySet()) {
+                        if (hotSlots.containsKey(credit.getKey())) {
+                            continue;
+                        }
+                        stmt.setBigDecimal(1, Money.toBigDecimal(credit.getValue()));
+                        stmt.setInt(2, credit.getKey());
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+                for (Map.Entry<Integer, Long> credit : credits.entrySet()) {
+                    Integer slot = hotSlots.get(credit.getKey());
+                    if (slot != null) {
+                        creditSlot(conn, credit.getKey(), slot, Money.toBigDecimal(credit.getValue()));
+                    }
+                }
+
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                    for (Transaction transaction : accepted) {
+                        stmt.setInt(1, fromAccountId);
+                        stmt.setInt(2, transaction.getToAccountId());
+                        stmt.setString(3, transaction.getTransactionType());
+                        stmt.setBigDecimal(4, transaction.getAmount());
+                        stmt.setString(5, transaction.getDescription());
+                        stmt.setString(6, transaction.getIdempotencyKey());
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                    try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                        for (Transaction transaction : accepted) {
+                            if (!generatedKeys.next()) {
+                                break;
+                            }
+                            transaction.setTransactionId(generatedKeys.getInt(1));
+                        }
+                    }
+                }
+
+                long version = balancesAfter == null ? 0 : BalanceEventBus.getInstance().nextVersion();
+                conn.commit();
+                for (Transaction transaction : accepted) {
+                    transaction.setStatus("COMPLETED");
+                }
+                if (balancesAfter != null) {
+                    balancesAfter.add(new BalanceChange(fromAccountId,
+                            Money.toBigDecimal(balances.get(fromAccountId) - total), version));
+                    for (Map.Entry<Integer, Long> credit : credits.entrySet()) {
+                        if (!hotSlots.containsKey(credit.getKey())) {
+                            balancesAfter.add(new BalanceChange(credit.getKey(),
+                                    Money.toBigDecimal(Money.add(balances.get(credit.getKey()), credit.getValue())), version));
+                        }
+                    }
+                }
+                return Outcome.COMPLETED;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    // 23505 is the standard unique violation; MySQL reports 23000 with error 1062.
+    private static boolean isDuplicateKey(SQLException e) {
+        return "23505".equals(e.getSQLState()) || e.getErrorCode() == 1062;
+    }
+
+    private int slotFor(int accountId) {
+        return creditSlots == null ? -1 : creditSlots.slotFor(accountId);
+    }
+
+    private static long lockBalance(Connection conn, int accountId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(LOCK_ONE_SQL)) {
+            stmt.setInt(1, accountId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? Money.toCents(rs.getBigDecimal(2)) : MISSING;
+            }
+        }
+    }
+
+    /**
+     * Locks the active rows among {@code accountIds} (ascending) in chunks of
+     * LOCK_CHUNK_SIZES and returns their balances; chunks go in id order, so
+     * the lock order is the same as one query's.
+     */
+    private static Map<Integer, Long> lockBalances(Connection conn, List<Integer> accountIds) throws SQLException {
+        Map<Integer, Long> balances = new HashMap<>();
+        int from = 0;
+        while (from < accountIds.size()) {
+            int remaining = accountIds.size() - from;
+            int chunk = 0;
+            while (chunk < LOCK_CHUNK_SIZES.length - 1 && LOCK_CHUNK_SIZES[chunk] < remaining) {
+                chunk++;
+            }
+            int size = LOCK_CHUNK_SIZES[chunk];
+            int count = Math.min(remaining, size);
+            try (PreparedStatement stmt = conn.prepareStatement(LOCK_CHUNK_SQL[chunk])) {
+                for (int i = 0; i < size; i++) {
+                    stmt.setInt(i + 1, accountIds.get(from + Math.min(i, count - 1)));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        balances.put(rs.getInt(1), Money.toCents(rs.getBigDecimal(2)));
+                    }
+                }
+            }
+            from += count;
+        }
+        return balances;
+    }
+
+    private static String lockChunkSql(int size) {
+        return "SELECT account_id, balance FROM accounts WHERE account_id IN (" +
+                String.join(", ", Collections.nCopies(size, "?")) +
+                ") AND is_active = TRUE ORDER BY account_id FOR UPDATE";
+    }
+
+    private static boolean exists(Connection conn, int accountId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(EXISTS_SQL)) {
+            stmt.setInt(1, accountId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static void creditSlot(Connection conn, int accountId, int slot, BigDecimal amount) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SubBalanceDAO.CREDIT_SLOT_SQL)) {
+            stmt.setBigDecimal(1, amount);
+            stmt.setInt(2, accountId);
+            stmt.setInt(3, slot);
+            if (stmt.executeUpdate() == 1) {
+                return;
+            }
+        }
+        // The slot is gone (hot mode was turned off); credit the account row instead.
+        try (PreparedStatement stmt = conn.prepareStatement(CREDIT_SQL)) {
+            stmt.setBigDecimal(1, amount);
+            stmt.setInt(2, accountId);
+            stmt.executeUpdate();
+        }
+    }
+}
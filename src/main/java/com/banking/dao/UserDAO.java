@@ -1,12 +1,38 @@
 package com.banking.dao;
 
 import com.banking.database.DatabaseConnection;
+import com.banking.metrics.MetricsRegistry;
+import com.banking.metrics.OperationMetrics;
 import com.banking.model.User;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiConsumer;
 
 public class UserDAO {
+    private static final OperationMetrics REGISTER = MetricsRegistry.operation("UserDAO.registerUser");
+    private static final OperationMetrics FIND_CREDENTIALS = MetricsRegistry.operation("UserDAO.findCredentials");
+    private static final OperationMetrics UPDATE_PASSWORD = MetricsRegistry.operation("UserDAO.updatePassword");
+    private static final OperationMetrics USERNAME_EXISTS = MetricsRegistry.operation("UserDAO.isUsernameExists");
+    private static final OperationMetrics EMAIL_EXISTS = MetricsRegistry.operation("UserDAO.isEmailExists");
+    private static final OperationMetrics FIND_TAKEN = MetricsRegistry.operation("UserDAO.findTakenIdentifiers");
+    private static final OperationMetrics LOAD_IDENTIFIERS = MetricsRegistry.operation("UserDAO.forEachIdentifier");
+
+    /** Bits returned by {@link #findTakenIdentifiers}. */
+    public static final int USERNAME_TAKEN = 1;
+    public static final int EMAIL_TAKEN = 2;
+
+    private static final String USER_COLUMNS =
+            "user_id, username, first_name, last_name, email, phone_number, registration_date, is_active";
+    // Only the login check reads the stored password (hash) back.
+    private static final Projection<User> CREDENTIALS = new Projection<>(USER_COLUMNS + ", password", rs -> {
+        User user = mapUser(rs);
+        user.setPassword(rs.getString(9));
+        return user;
+    });
+    private static final String CREDENTIALS_SQL =
+            "SELECT " + CREDENTIALS.getColumns() + " FROM users WHERE username = ? AND is_active = TRUE";
+
     private DatabaseConnection dbConnection;
 
     public UserDAO() {
@@ -14,6 +40,8 @@ public class UserDAO {
     }
 
     public boolean registerUser(User user) {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
         String sql = "INSERT INTO users (username, password, first_name, last_name, email, phone_number) VALUES (?, ?, ?, ?, ?, ?)";
         
         try (Connection conn = dbConnection.getConnection();
@@ -27,35 +55,76 @@ public class UserDAO {
             stmt.setString(6, user.getPhoneNumber());
             
             int rowsAffected = stmt.executeUpdate();
+            rows = rowsAffected;
             return rowsAffected > 0;
             
         } catch (SQLException e) {
             System.err.println("Error registering user: " + e.getMessage());
             return false;
+        } finally {
+            REGISTER.record(start, rows);
         }
     }
 
-    public User loginUser(String username, String password) {
-        String sql = "SELECT * FROM users WHERE username = ? AND password = ? AND is_active = TRUE";
+    /**
+     * The active user named {@code username} with its stored password (a hash,
+     * or plaintext for rows that predate hashing) in {@link User#getPassword()},
+     * or null if there is none.
+     */
+    public User findCredentials(String username) {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
+        String sql = CREDENTIALS_SQL;
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, username);
-            stmt.setString(2, password);
             
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                return mapResultSetToUser(rs);
+                User user = CREDENTIALS.map(rs);
+                rows = 1;
+                return user;
             }
+            rows = 0;
             
         } catch (SQLException e) {
-            System.err.println("Error logging in user: " + e.getMessage());
+            System.err.println("Error looking up user: " + e.getMessage());
+        } finally {
+            FIND_CREDENTIALS.record(start, rows);
         }
         return null;
     }
 
+    /** Replaces the stored password, but only if it is still {@code expected}. */
+    public boolean updatePassword(int userId, String expected, String newPassword) {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
+        String sql = "UPDATE users SET password = ? WHERE user_id = ? AND password = ?";
+
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, newPassword);
+            stmt.setInt(2, userId);
+            stmt.setString(3, expected);
+
+            int rowsAffected = stmt.executeUpdate();
+            rows = rowsAffected;
+            return rowsAffected > 0;
+
+        } catch (SQLException e) {
+            System.err.println("Error updating password: " + e.getMessage());
+            return false;
+        } finally {
+            UPDATE_PASSWORD.record(start, rows);
+        }
+    }
+
     public boolean isUsernameExists(String username) {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
         String sql = "SELECT COUNT(*) FROM users WHERE username = ?";
         
         try (Connection conn = dbConnection.getConnection();
@@ -65,16 +134,23 @@ public class UserDAO {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return rs.getInt(1) > 0;
+                boolean exists = rs.getInt(1) > 0;
+                rows = 1;
+                return exists;
             }
+            rows = 0;
             
         } catch (SQLException e) {
             System.err.println("Error checking username: " + e.getMessage());
+        } finally {
+            USERNAME_EXISTS.record(start, rows);
         }
         return false;
     }
 
     public boolean isEmailExists(String email) {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
         String sql = "SELECT COUNT(*) FROM users WHERE email = ?";
         
         try (Connection conn = dbConnection.getConnection();
@@ -84,26 +160,92 @@ public class UserDAO {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return rs.getInt(1) > 0;
+                boolean exists = rs.getInt(1) > 0;
+                rows = 1;
+                return exists;
             }
+            rows = 0;
             
         } catch (SQLException e) {
             System.err.println("Error checking email: " + e.getMessage());
+        } finally {
+            EMAIL_EXISTS.record(start, rows);
         }
         return false;
     }
 
-    private User mapResultSetToUser(ResultSet rs) throws SQLException {
+    /**
+     * Checks a username and an email in one round trip. Returns a combination
+     * of USERNAME_TAKEN and EMAIL_TAKEN, or 0 if both are free (or the check
+     * failed, in which case the unique keys still reject a duplicate insert).
+     */
+    public int findTakenIdentifiers(String username, String email) {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
+        // Each branch of the OR is served by its own unique index.
+        String sql = "SELECT COALESCE(MAX(CASE WHEN username = ? THEN 1 ELSE 0 END), 0), " +
+                     "COALESCE(MAX(CASE WHEN email = ? THEN 1 ELSE 0 END), 0) " +
+                     "FROM users WHERE username = ? OR email = ?";
+
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, username);
+            stmt.setString(2, email);
+            stmt.setString(3, username);
+            stmt.setString(4, email);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                int taken = (rs.getInt(1) > 0 ? USERNAME_TAKEN : 0) | (rs.getInt(2) > 0 ? EMAIL_TAKEN : 0);
+                rows = 1;
+                return taken;
+            }
+            rows = 0;
+
+        } catch (SQLException e) {
+            System.err.println("Error checking username and email: " + e.getMessage());
+        } finally {
+            FIND_TAKEN.record(start, rows);
+        }
+        return 0;
+    }
+
+    /** Streams every (username, email) pair to {@code consumer}. Returns the number of users. */
+    public int forEachIdentifier(BiConsumer<String, String> consumer) throws SQLException {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
+        String sql = "SELECT username, email FROM users";
+
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            boolean mysql = conn.getMetaData().getDriverName().toLowerCase().contains("mysql");
+            stmt.setFetchSize(mysql ? Integer.MIN_VALUE : 1000);
+            int count = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(rs.getString(1), rs.getString(2));
+                    count++;
+                }
+            }
+            rows = count;
+            return count;
+        } finally {
+            LOAD_IDENTIFIERS.record(start, rows);
+        }
+    }
+
+    private static User mapUser(ResultSet rs) throws SQLException {
         User user = new User();
-        user.setUserId(rs.getInt("user_id"));
-        user.setUsername(rs.getString("username"));
-        user.setPassword(rs.getString("password"));
-        user.setFirstName(rs.getString("first_name"));
-        user.setLastName(rs.getString("last_name"));
-        user.setEmail(rs.getString("email"));
-        user.setPhoneNumber(rs.getString("phone_number"));
-        user.setRegistrationDate(rs.getTimestamp("registration_date").toLocalDateTime());
-        user.setActive(rs.getBoolean("is_active"));
+        user.setUserId(rs.getInt(1));
+        user.setUsername(rs.getString(2));
+        user.setFirstName(rs.getString(3));
+        user.setLastName(rs.getString(4));
+        user.setEmail(rs.getString(5));
+        user.setPhoneNumber(rs.getString(6));
+        user.setRegistrationDate(rs.getTimestamp(7).toLocalDateTime());
+        user.setActive(rs.getBoolean(8));
         return user;
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.banking.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Statements, result sets and metadata obtained through a pooled connection
+ * handle. getConnection() answers with the handle and getStatement() with the
+ * wrapped statement instead of the driver objects behind them, and unwrap()
+ * refuses driver classes, so nothing reachable from a handle leads back to
+ * the physical connection after the handle is closed.
+ */
+final class ConnectionBound implements InvocationHandler {
+    private final Object target;
+    private final Connection handle;
+    private final Object statement;
+
+    private ConnectionBound(Object target, Connection handle, Object statement) {
+        this.target = target;
+        this.handle = handle;
+        this.statement = statement;
+    }
+
+    /** True for the JDBC objects that can lead back to their connection. */
+    static boolean isBound(Object value) {
+        return value instanceof Statement || value instanceof ResultSet || value instanceof DatabaseMetaData;
+    }
+
+    /** Proxies {@code target} as {@code type}; {@code statement} is the owner of a result set, or null. */
+    static Object wrap(Object target, Class<?> type, Connection handle, Object statement) {
+        return Proxy.newProxyInstance(ConnectionBound.class.getClassLoader(), new Class<?>[]{type},
+                new ConnectionBound(target, handle, statement));
+    }
+
+    /** As Wrapper.unwrap for a proxy that may only be unwrapped to interfaces it implements itself. */
+    static Object unwrap(Object proxy, Class<?> iface) throws SQLException {
+        if (iface.isInstance(proxy)) {
+            return proxy;
+        }
+        throw new SQLException("Pooled JDBC objects cannot be unwrapped to " + iface.getName());
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        int arity = args == null ? 0 : args.length;
+        switch (name) {
+            case "getConnection":
+                if (arity == 0) {
+                    return handle;
+                }
+                break;
+            case "getStatement":
+                if (arity == 0 && target instanceof ResultSet) {
+                    return statement;
+                }
+                break;
+            case "unwrap":
+                return unwrap(proxy, (Class<?>) args[0]);
+            case "isWrapperFor":
+                return ((Class<?>) args[0]).isInstance(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                break;
+        }
+        Object result;
+        try {
+            result = method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+        if (result instanceof ResultSet && method.getReturnType() == ResultSet.class) {
+            return wrap(result, ResultSet.class, handle, target instanceof Statement ? proxy : null);
+        }
+        return result;
+    }
+}
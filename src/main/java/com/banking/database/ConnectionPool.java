@@ -0,0 +1,446 @@
+package com.banking.database;
+
+import com.banking.diagnostics.ConnectionBorrowEvent;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of physical JDBC connections. Callers receive a proxy whose
+ * close() hands the physical connection back to the pool instead of closing it,
+ * so DAOs can keep using try-with-resources unchanged.
+ *
+ * At most {@code maxWaiters} callers queue for a connection at a time; past
+ * that, and after the borrow timeout, borrow() fails fast with a
+ * {@link SQLTransientConnectionException} instead of letting requests pile up.
+ *
+ * Statements and metadata handed out through a handle lead back to the
+ * handle, never to the physical connection (see {@link ConnectionBound}).
+ * Returning a connection rolls back an open transaction and restores the
+ * isolation level, read-only flag and catalog it was created with.
+ *
+ * Each physical connection also keeps up to {@code statementCacheSize}
+ * prepared statements open across borrows (see {@link StatementCache}); 0
+ * turns the cache off.
+ */
+public class ConnectionPool implements ConnectionPoolMBean {
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long MAINTENANCE_INTERVAL_MILLIS = 30_000;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final int statementCacheSize;
+    private final int maxWaiters;
+
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    private final Map<PooledEntry, Long> borrowed = new ConcurrentHashMap<>();
+    private final Semaphore permits;
+    private final ScheduledExecutorService maintenance;
+    private volatile boolean closed;
+
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong borrowWaitNanos = new AtomicLong();
+    private final AtomicLong borrowTimeouts = new AtomicLong();
+    private final AtomicLong shedCount = new AtomicLong();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final AtomicLong statementCacheEvictions = new AtomicLong();
+
+    public ConnectionPool(String url, String username, String password, int minSize, int maxSize,
+                          long borrowTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis) {
+        this(url, username, password, minSize, maxSize, borrowTimeoutMillis, idleTimeoutMillis, leakThresholdMillis, 0);
+    }
+
+    public ConnectionPool(String url, String username, String password, int minSize, int maxSize,
+                          long borrowTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis,
+                          int statementCacheSize) {
+        this(url, username, password, minSize, maxSize, borrowTimeoutMillis, idleTimeoutMillis, leakThresholdMillis,
+                statementCacheSize, Integer.MAX_VALUE);
+    }
+
+    public ConnectionPool(String url, String username, String password, int minSize, int maxSize,
+                          long borrowTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis,
+                          int statementCacheSize, int maxWaiters) {
+        if (minSize < 0 || maxSize <= 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool bounds: min=" + minSize + ", max=" + maxSize);
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Invalid statement cache size: " + statementCacheSize);
+        }
+        if (maxWaiters < 0) {
+            throw new IllegalArgumentException("Invalid max waiters: " + maxWaiters);
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.maxWaiters = maxWaiters;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+
+        fillToMinimum();
+        maintenance.scheduleWithFixedDelay(this::runMaintenance,
+                MAINTENANCE_INTERVAL_MILLIS, MAINTENANCE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        ConnectionBorrowEvent event = new ConnectionBorrowEvent();
+        event.begin();
+        if (!permits.tryAcquire()) {
+            if (waiters.incrementAndGet() > maxWaiters) {
+                waiters.decrementAndGet();
+                shedCount.incrementAndGet();
+                commitBorrowEvent(event, true);
+                throw new SQLTransientConnectionException("Database busy: " + maxWaiters
+                        + " requests already waiting for a connection (max=" + maxSize + ")");
+            }
+            try {
+                if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    borrowTimeouts.incrementAndGet();
+                    commitBorrowEvent(event, true);
+                    throw new SQLTransientConnectionException("Timed out after " + borrowTimeoutMillis
+                            + "ms waiting for a database connection (active=" + getActiveCount()
+                            + ", max=" + maxSize + ")");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            } finally {
+                waiters.decrementAndGet();
+            }
+        }
+
+        try {
+            PooledEntry entry = takeValidEntry();
+            borrowed.put(entry, System.currentTimeMillis());
+            borrowCount.incrementAndGet();
+            borrowWaitNanos.addAndGet(System.nanoTime() - start);
+            commitBorrowEvent(event, false);
+            return entry.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void commitBorrowEvent(ConnectionBorrowEvent event, boolean timedOut) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.active = getActiveCount();
+            event.waiting = getWaitingCount();
+            event.timedOut = timedOut;
+            event.commit();
+        }
+    }
+
+    private PooledEntry takeValidEntry() throws SQLException {
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            if (isUsable(entry.physical)) {
+                return entry;
+            }
+            validationFailures.incrementAndGet();
+            destroy(entry);
+        }
+        return create();
+    }
+
+    private void release(PooledEntry entry) {
+        if (borrowed.remove(entry) == null) {
+            return;
+        }
+        try {
+            if (closed || entry.physical.isClosed()) {
+                destroy(entry);
+                return;
+            }
+            if (entry.statements != null) {
+                entry.statements.releaseAll();
+            }
+            if (!entry.physical.getAutoCommit()) {
+                entry.physical.rollback();
+                entry.physical.setAutoCommit(true);
+            }
+            if (entry.sessionChanged) {
+                entry.physical.setTransactionIsolation(entry.defaultIsolation);
+                entry.physical.setReadOnly(entry.defaultReadOnly);
+                if (entry.defaultCatalog != null) {
+                    entry.physical.setCatalog(entry.defaultCatalog);
+                }
+                entry.sessionChanged = false;
+            }
+            entry.physical.clearWarnings();
+            entry.lastUsed = System.currentTimeMillis();
+            idle.offerFirst(entry);
+        } catch (SQLException e) {
+            System.err.println("Discarding pooled connection after reset failure: " + e.getMessage());
+            destroy(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean isUsable(Connection connection) {
+        try {
+            return !connection.isClosed() && connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledEntry create() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, username, password);
+        PooledEntry entry;
+        try {
+            entry = new PooledEntry(physical);
+        } catch (SQLException e) {
+            physical.close();
+            throw e;
+        }
+        totalConnections.incrementAndGet();
+        createdCount.incrementAndGet();
+        return entry;
+    }
+
+    private void destroy(PooledEntry entry) {
+        totalConnections.decrementAndGet();
+        destroyedCount.incrementAndGet();
+        try {
+            entry.physical.close();
+        } catch (SQLException e) {
+            System.err.println("Failed to close pooled connection: " + e.getMessage());
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && totalConnections.get() < minSize) {
+            try {
+                PooledEntry entry = create();
+                entry.lastUsed = System.currentTimeMillis();
+                idle.offerLast(entry);
+            } catch (SQLException e) {
+                System.err.println("Failed to pre-fill connection pool: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void runMaintenance() {
+        try {
+            evictIdle();
+            detectLeaks();
+            fillToMinimum();
+        } catch (RuntimeException e) {
+            System.err.println("Connection pool maintenance failed: " + e.getMessage());
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledEntry> it = idle.descendingIterator();
+        while (it.hasNext() && totalConnections.get() > minSize) {
+            PooledEntry entry = it.next();
+            if (now - entry.lastUsed >= idleTimeoutMillis && idle.remove(entry)) {
+                destroy(entry);
+            }
+        }
+    }
+
+    private void detectLeaks() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<PooledEntry, Long> e : borrowed.entrySet()) {
+            PooledEntry entry = e.getKey();
+            if (now - e.getValue() >= leakThresholdMillis && !entry.leakReported) {
+                entry.leakReported = true;
+                leaksDetected.incrementAndGet();
+                System.err.println("Possible connection leak: connection held for "
+                        + (now - e.getValue()) + "ms by " + entry.borrowerThread);
+            }
+        }
+    }
+
+    public void shutdown() {
+        closed = true;
+        maintenance.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            destroy(entry);
+        }
+    }
+
+    public int getActiveCount() { return borrowed.size(); }
+    public int getIdleCount() { return idle.size(); }
+    public int getTotalCount() { return totalConnections.get(); }
+    public int getMaxSize() { return maxSize; }
+    public int getMinSize() { return minSize; }
+    public int getWaitingCount() { return permits.getQueueLength(); }
+    public long getBorrowCount() { return borrowCount.get(); }
+    public long getBorrowTimeoutCount() { return borrowTimeouts.get(); }
+    public long getShedCount() { return shedCount.get(); }
+    public int getMaxWaiters() { return maxWaiters; }
+    public long getCreatedCount() { return createdCount.get(); }
+    public long getDestroyedCount() { return destroyedCount.get(); }
+    public long getValidationFailureCount() { return validationFailures.get(); }
+    public long getLeakCount() { return leaksDetected.get(); }
+    public int getStatementCacheSize() { return statementCacheSize; }
+    public long getStatementCacheHits() { return statementCacheHits.get(); }
+    public long getStatementCacheMisses() { return statementCacheMisses.get(); }
+    public long getStatementCacheEvictions() { return statementCacheEvictions.get(); }
+
+    public double getStatementCacheHitRate() {
+        long hits = statementCacheHits.get();
+        long total = hits + statementCacheMisses.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    public double getAverageBorrowWaitMillis() {
+        long count = borrowCount.get();
+        return count == 0 ? 0.0 : borrowWaitNanos.get() / 1_000_000.0 / count;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPool[active=" + getActiveCount() + ", idle=" + getIdleCount()
+                + ", total=" + getTotalCount() + ", max=" + maxSize + ", waiting=" + getWaitingCount()
+                + ", borrows=" + getBorrowCount() + ", timeouts=" + getBorrowTimeoutCount()
+                + ", shed=" + getShedCount()
+                + ", leaks=" + getLeakCount()
+                + ", statementHitRate=" + String.format("%.3f", getStatementCacheHitRate()) + "]";
+    }
+
+    private final class PooledEntry {
+        private final Connection physical;
+        private final StatementCache statements;
+        private final int defaultIsolation;
+        private final boolean defaultReadOnly;
+        private final String defaultCatalog;
+        // Set when a borrower changes isolation, read-only or catalog, so release only resets what was touched.
+        private boolean sessionChanged;
+        private volatile long lastUsed;
+        private volatile boolean leakReported;
+        private volatile String borrowerThread;
+
+        private PooledEntry(Connection physical) throws SQLException {
+            this.physical = physical;
+            this.defaultIsolation = physical.getTransactionIsolation();
+            this.defaultReadOnly = physical.isReadOnly();
+            this.defaultCatalog = physical.getCatalog();
+            this.statements = statementCacheSize == 0 ? null : new StatementCache(physical, statementCacheSize,
+                    statementCacheHits, statementCacheMisses, statementCacheEvictions);
+        }
+
+        private Connection newHandle() {
+            leakReported = false;
+            borrowerThread = Thread.currentThread().getName();
+            return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new Handle(this));
+        }
+    }
+
+    /**
+     * Logical connection handed to callers. Each borrow gets its own handle so a
+     * double close() or use-after-close cannot affect the next borrower.
+     */
+    private final class Handle implements InvocationHandler {
+        private PooledEntry entry;
+
+        private Handle(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (entry != null) {
+                        PooledEntry returning = entry;
+                        entry = null;
+                        release(returning);
+                    }
+                    return null;
+                case "isClosed":
+                    return entry == null || entry.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + (entry == null ? "closed" : entry.physical) + "]";
+                case "unwrap":
+                    return ConnectionBound.unwrap(proxy, (Class<?>) args[0]);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy);
+                default:
+                    break;
+            }
+            if (entry == null) {
+                throw new SQLException("Connection has been returned to the pool");
+            }
+            if (name.equals("setTransactionIsolation") || name.equals("setReadOnly") || name.equals("setCatalog")) {
+                entry.sessionChanged = true;
+            }
+            Object result;
+            if (entry.statements != null && StatementCache.isCacheable(method)) {
+                result = entry.statements.prepare((String) args[0], StatementCache.autoGeneratedKeys(args));
+            } else {
+                try {
+                    result = method.invoke(entry.physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+            if (result instanceof Statement && TracedStatement.isEnabled()) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                result = TracedStatement.wrap(result, method.getReturnType(), sql);
+            }
+            if (ConnectionBound.isBound(result)) {
+                return ConnectionBound.wrap(result, method.getReturnType(), (Connection) proxy, null);
+            }
+            return result;
+        }
+    }
+}
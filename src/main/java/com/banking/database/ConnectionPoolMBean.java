@@ -0,0 +1,25 @@
+package com.banking.database;
+
+/** JMX view of the connection pool, registered as {@code com.banking:type=ConnectionPool}. */
+public interface ConnectionPoolMBean {
+    int getActiveCount();
+    int getIdleCount();
+    int getTotalCount();
+    int getMaxSize();
+    int getMinSize();
+    int getWaitingCount();
+    long getBorrowCount();
+    long getBorrowTimeoutCount();
+    long getShedCount();
+    int getMaxWaiters();
+    long getCreatedCount();
+    long getDestroyedCount();
+    long getValidationFailureCount();
+    long getLeakCount();
+    double getAverageBorrowWaitMillis();
+    int getStatementCacheSize();
+    long getStatementCacheHits();
+    long getStatementCacheMisses();
+    long getStatementCacheEvictions();
+    double getStatementCacheHitRate();
+}
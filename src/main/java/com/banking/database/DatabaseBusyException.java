@@ -0,0 +1,12 @@
+package com.banking.database;
+
+/**
+ * Thrown by {@link DatabaseConnection#getConnection()} when the pool sheds a
+ * request: too many callers are already waiting, or no connection freed up
+ * within the borrow timeout. Callers may retry later.
+ */
+public class DatabaseBusyException extends IllegalStateException {
+    public DatabaseBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,19 +1,55 @@
 package com.banking.database;
 
+import java.lang.management.ManagementFactory;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 public class DatabaseConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/online_banking";
-    private static final String USERNAME = "root";
-    private static final String PASSWORD = "Channa@123";
-    
-    private static DatabaseConnection instance;
-    private Connection connection;
+    private static final String URL = System.getProperty("banking.db.url",
+            "jdbc:mysql://localhost:3306/online_banking?rewriteBatchedStatements=true&useServerPrepStmts=true");
+    private static final String USERNAME = System.getProperty("banking.db.user", "root");
+    private static final String PASSWORD = System.getProperty("banking.db.password", "Channa@123");
+
+    // Connection pool settings
+    private static final int MIN_CONNECTIONS = Integer.getInteger("banking.db.pool.min", 2);
+    private static final int MAX_CONNECTIONS = Integer.getInteger("banking.db.pool.max", 10);
+    private static final long CONNECTION_TIMEOUT_MILLIS = Long.getLong("banking.db.pool.borrowTimeoutMillis", 30_000L);
+    private static final long IDLE_TIMEOUT_MILLIS = Long.getLong("banking.db.pool.idleTimeoutMillis", 300_000L);
+    private static final long LEAK_THRESHOLD_MILLIS = Long.getLong("banking.db.pool.leakThresholdMillis", 60_000L);
+    // Prepared statements kept open per pooled connection (0 disables)
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("banking.db.pool.statementCacheSize", 64);
+    // Callers allowed to queue for a connection before new ones are turned away
+    private static final int MAX_WAITERS = Integer.getInteger("banking.db.pool.maxWaiters", 4 * MAX_CONNECTIONS);
+
+    private static volatile DatabaseConnection instance;
+    private final ConnectionPool pool;
 
     private DatabaseConnection() {
-        initializeConnection();
+        try {
+            Class.forName("com.mysql.cj.jdbc.Driver");
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("MySQL JDBC Driver not found. Ensure mysql-connector-java JAR is on the classpath.", e);
+        }
+        this.pool = new ConnectionPool(URL, USERNAME, PASSWORD, MIN_CONNECTIONS, MAX_CONNECTIONS,
+                CONNECTION_TIMEOUT_MILLIS, IDLE_TIMEOUT_MILLIS, LEAK_THRESHOLD_MILLIS, STATEMENT_CACHE_SIZE,
+                MAX_WAITERS);
+        registerMBean(pool);
+    }
+
+    private static void registerMBean(ConnectionPool pool) {
+        try {
+            ObjectName name = new ObjectName("com.banking:type=ConnectionPool");
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(name)) {
+                server.registerMBean(pool, name);
+            }
+        } catch (JMException e) {
+            System.err.println("Error registering connection pool MBean: " + e.getMessage());
+        }
     }
 
     public static DatabaseConnection getInstance() {
@@ -27,40 +63,25 @@ public class DatabaseConnection {
         return instance;
     }
 
+    /**
+     * Borrows a connection from the pool. Closing the returned connection
+     * returns it to the pool rather than closing the physical connection.
+     */
     public Connection getConnection() {
         try {
-            if (connection == null || connection.isClosed()) {
-                initializeConnection();
-            }
+            return pool.borrow();
+        } catch (SQLTransientConnectionException e) {
+            throw new DatabaseBusyException(e.getMessage(), e);
         } catch (SQLException e) {
-            throw new IllegalStateException("Failed to validate database connection", e);
-        }
-        if (connection == null) {
-            throw new IllegalStateException("Database connection is not initialized. Check JDBC URL, username/password, and that MySQL is running.");
+            throw new IllegalStateException("Database connection failed for URL=" + URL + ", user=" + USERNAME + ". Cause: " + e.getMessage(), e);
         }
-        return connection;
     }
 
-    public void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-            }
-        } catch (SQLException e) {
-            System.err.println("Failed to close database connection: " + e.getMessage());
-        }
+    public ConnectionPool getPool() {
+        return pool;
     }
 
-    private void initializeConnection() {
-        try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-        } catch (ClassNotFoundException e) {
-            throw new IllegalStateException("MySQL JDBC Driver not found. Ensure mysql-connector-java JAR is on the classpath.", e);
-        }
-        try {
-            this.connection = DriverManager.getConnection(URL, USERNAME, PASSWORD);
-        } catch (SQLException e) {
-            throw new IllegalStateException("Database connection failed for URL=" + URL + ", user=" + USERNAME + ". Cause: " + e.getMessage(), e);
-        }
+    public void closeConnection() {
+        pool.shutdown();
     }
 }
@@ -0,0 +1,169 @@
+package com.banking.database;
+
+import com.banking.metrics.MetricsRegistry;
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reruns a database transaction that lost a lock conflict: a deadlock
+ * (SQLState 40001, MySQL error 1213) or a lock wait timeout (error 1205).
+ * Only whole units that open their own connection, re-read what they need
+ * under lock and roll back on failure may be run through it, so a rerun sees
+ * the same state a first attempt would have.
+ *
+ * Up to banking.db.retry.maxAttempts (default 4) attempts are made, sleeping
+ * between them for a random time between half and all of
+ * banking.db.retry.baseMillis (default 10) doubled per attempt, capped at
+ * banking.db.retry.maxMillis (default 200). The sleep happens after the
+ * connection is back in the pool.
+ *
+ * Retries are also limited to banking.db.retry.budgetPercent (default 20)
+ * percent of executions: every execution adds that fraction of a retry to a
+ * budget that starts at RESERVE_RETRIES and saves up to MAX_SAVED_RETRIES,
+ * and every retry spends one. When the database is overloaded rather than
+ * briefly contended, retries therefore do not multiply the load. Counters are on {@code com.banking:type=RetryPolicy}.
+ */
+public class RetryPolicy implements RetryPolicyMBean {
+    private static final int RESERVE_RETRIES = 10;
+    private static final int MAX_SAVED_RETRIES = 100;
+    // The budget is kept in hundredths of a retry so that percentages stay integral.
+    private static final long RETRY_COST = 100;
+
+    /** A transactional unit of work. */
+    public interface Unit<T> {
+        T run() throws SQLException;
+    }
+
+    private static volatile RetryPolicy instance;
+
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    private final int budgetPercent;
+    private final AtomicLong budget = new AtomicLong(RESERVE_RETRIES * RETRY_COST);
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder budgetDenied = new LongAdder();
+
+    RetryPolicy(int maxAttempts, long baseBackoffMillis, long maxBackoffMillis, int budgetPercent) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Invalid max attempts: " + maxAttempts);
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = Math.max(1, baseBackoffMillis);
+        this.maxBackoffMillis = Math.max(this.baseBackoffMillis, maxBackoffMillis);
+        this.budgetPercent = Math.max(0, budgetPercent);
+    }
+
+    public static RetryPolicy getInstance() {
+        if (instance == null) {
+            synchronized (RetryPolicy.class) {
+                if (instance == null) {
+                    RetryPolicy policy = new RetryPolicy(Integer.getInteger("banking.db.retry.maxAttempts", 4),
+                            Long.getLong("banking.db.retry.baseMillis", 10L),
+                            Long.getLong("banking.db.retry.maxMillis", 200L),
+                            Integer.getInteger("banking.db.retry.budgetPercent", 20));
+                    MetricsRegistry.getInstance().registerMBean(policy, "RetryPolicy", "transactions");
+                    instance = policy;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * True for errors that mean the transaction was chosen as a deadlock
+     * victim or gave up waiting for a lock, and nothing it did was kept.
+     */
+    public static boolean isRetryable(SQLException e) {
+        for (SQLException current = e; current != null; current = current.getNextException()) {
+            if (current instanceof SQLTransactionRollbackException
+                    || "40001".equals(current.getSQLState())
+                    || current.getErrorCode() == 1213
+                    || current.getErrorCode() == 1205) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs {@code unit}, rerunning it after a retryable failure while attempts
+     * and budget last. Any other failure, or the last retryable one, is thrown.
+     */
+    public <T> T execute(Unit<T> unit) throws SQLException {
+        executions.increment();
+        deposit();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = unit.run();
+                if (attempt > 1) {
+                    recovered.increment();
+                }
+                return result;
+            } catch (SQLException e) {
+                if (!isRetryable(e)) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    throw e;
+                }
+                if (!withdraw()) {
+                    budgetDenied.increment();
+                    throw e;
+                }
+                retries.increment();
+                try {
+                    Thread.sleep(backoffMillis(attempt));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Half the exponential step plus a random part of the other half, so
+    // retries of the two deadlocked transactions do not collide again.
+    private long backoffMillis(int attempt) {
+        long step = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+        return step / 2 + ThreadLocalRandom.current().nextLong(step / 2 + 1);
+    }
+
+    private void deposit() {
+        long cap = MAX_SAVED_RETRIES * RETRY_COST;
+        long current = budget.get();
+        while (current < cap && !budget.compareAndSet(current, Math.min(cap, current + budgetPercent))) {
+            current = budget.get();
+        }
+    }
+
+    private boolean withdraw() {
+        long current = budget.get();
+        while (current >= RETRY_COST) {
+            if (budget.compareAndSet(current, current - RETRY_COST)) {
+                return true;
+            }
+            current = budget.get();
+        }
+        return false;
+    }
+
+    @Override public int getMaxAttempts() { return maxAttempts; }
+    @Override public long getBaseBackoffMillis() { return baseBackoffMillis; }
+    @Override public long getMaxBackoffMillis() { return maxBackoffMillis; }
+    @Override public int getBudgetPercent() { return budgetPercent; }
+    @Override public long getExecutionCount() { return executions.sum(); }
+    @Override public long getRetryCount() { return retries.sum(); }
+    @Override public long getRecoveredCount() { return recovered.sum(); }
+    @Override public long getExhaustedCount() { return exhausted.sum(); }
+    @Override public long getBudgetDeniedCount() { return budgetDenied.sum(); }
+    @Override public double getRetryBudget() { return (double) budget.get() / RETRY_COST; }
+}
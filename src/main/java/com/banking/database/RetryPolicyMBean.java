@@ -0,0 +1,14 @@
+package com.banking.database;
+
+public interface RetryPolicyMBean {
+    int getMaxAttempts();
+    long getBaseBackoffMillis();
+    long getMaxBackoffMillis();
+    int getBudgetPercent();
+    long getExecutionCount();
+    long getRetryCount();
+    long getRecoveredCount();
+    long getExhaustedCount();
+    long getBudgetDeniedCount();
+    double getRetryBudget();
+}
@@ -0,0 +1,285 @@
+package com.banking.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prepared statements of one pooled connection, kept open across borrows and
+ * keyed by SQL text and generated-keys mode. close() on a cached statement
+ * closes its result sets, clears its parameters, batch and warnings, and
+ * puts back any fetch size, max rows, query timeout, fetch direction or max
+ * field size the caller changed, instead of closing it, so the next prepareStatement with the same SQL skips the
+ * driver's (and with useServerPrepStmts, the server's) parse and plan. At
+ * most {@code maxSize} statements are kept; the least recently used one is
+ * closed to make room. A statement still open when the same SQL is prepared
+ * again is not shared: the second caller gets an uncached statement. A
+ * statement whose other settings (cursor name, escape processing, poolable,
+ * closeOnCompletion) were changed is closed rather than cached.
+ *
+ * Only the thread that has the connection borrowed uses its cache.
+ */
+final class StatementCache {
+    private static final Set<String> RESTORED_SETTERS = Set.of("setFetchSize", "setMaxRows", "setLargeMaxRows",
+            "setQueryTimeout", "setFetchDirection", "setMaxFieldSize");
+    private static final Set<String> UNCACHEABLE_SETTERS = Set.of("setCursorName", "setEscapeProcessing",
+            "setPoolable", "closeOnCompletion");
+
+    private final Connection physical;
+    private final int maxSize;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+    private final LinkedHashMap<Key, CachedStatement> statements;
+
+    StatementCache(Connection physical, int maxSize, AtomicLong hits, AtomicLong misses, AtomicLong evictions) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.statements = new LinkedHashMap<Key, CachedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedStatement> eldest) {
+                if (size() <= StatementCache.this.maxSize) {
+                    return false;
+                }
+                StatementCache.this.evictions.incrementAndGet();
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    /** True for the prepareStatement overloads this cache handles: (sql) and (sql, autoGeneratedKeys). */
+    static boolean isCacheable(Method method) {
+        Class<?>[] parameters = method.getParameterTypes();
+        return method.getName().equals("prepareStatement")
+                && (parameters.length == 1 || (parameters.length == 2 && parameters[1] == int.class));
+    }
+
+    /** The generated-keys mode of a cacheable prepareStatement call. */
+    static int autoGeneratedKeys(Object[] args) {
+        return args.length > 1 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+    }
+
+    PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        Key key = new Key(sql, autoGeneratedKeys);
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse) {
+            hits.incrementAndGet();
+            return cached.open();
+        }
+        misses.incrementAndGet();
+        PreparedStatement statement = physical.prepareStatement(sql, autoGeneratedKeys);
+        if (cached != null) {
+            return statement;
+        }
+        CachedStatement created = new CachedStatement(key, statement);
+        statements.put(key, created);
+        return created.open();
+    }
+
+    /** Logically closes statements the borrower left open; called when the connection is returned. */
+    void releaseAll() {
+        for (CachedStatement cached : new ArrayList<>(statements.values())) {
+            if (cached.inUse) {
+                cached.release();
+            }
+        }
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    private static final class Key {
+        private final String sql;
+        private final int autoGeneratedKeys;
+
+        private Key(String sql, int autoGeneratedKeys) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return autoGeneratedKeys == other.autoGeneratedKeys && sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, autoGeneratedKeys);
+        }
+    }
+
+    private final class CachedStatement {
+        private final Key key;
+        private final PreparedStatement target;
+        private final List<ResultSet> resultSets = new ArrayList<>(1);
+        private Lease lease;
+        private boolean inUse;
+        private boolean batched;
+        private boolean evicted;
+        private boolean discarded;
+        // Settings as prepared, saved before the first caller changes one.
+        private boolean configured;
+        private int fetchSize;
+        private int maxRows;
+        private int queryTimeout;
+        private int fetchDirection;
+        private int maxFieldSize;
+
+        private CachedStatement(Key key, PreparedStatement target) {
+            this.key = key;
+            this.target = target;
+        }
+
+        private PreparedStatement open() {
+            inUse = true;
+            lease = new Lease(this);
+            return (PreparedStatement) Proxy.newProxyInstance(StatementCache.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, lease);
+        }
+
+        private void release() {
+            inUse = false;
+            lease.statement = null;
+            lease = null;
+            try {
+                for (ResultSet rs : resultSets) {
+                    rs.close();
+                }
+                resultSets.clear();
+                target.clearParameters();
+                if (batched) {
+                    target.clearBatch();
+                    batched = false;
+                }
+                target.clearWarnings();
+                if (configured) {
+                    restoreSettings();
+                }
+                if (discarded) {
+                    statements.remove(key);
+                } else if (!evicted) {
+                    return;
+                }
+            } catch (SQLException e) {
+                statements.remove(key);
+            }
+            closeQuietly();
+        }
+
+        private void saveSettings() throws SQLException {
+            fetchSize = target.getFetchSize();
+            maxRows = target.getMaxRows();
+            queryTimeout = target.getQueryTimeout();
+            fetchDirection = target.getFetchDirection();
+            maxFieldSize = target.getMaxFieldSize();
+            configured = true;
+        }
+
+        private void restoreSettings() throws SQLException {
+            // Max rows first: some drivers refuse a fetch size above it.
+            target.setMaxRows(maxRows);
+            target.setFetchSize(fetchSize);
+            target.setQueryTimeout(queryTimeout);
+            target.setFetchDirection(fetchDirection);
+            target.setMaxFieldSize(maxFieldSize);
+            configured = false;
+        }
+
+        private void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                target.close();
+            } catch (SQLException e) {
+                System.err.println("Failed to close cached statement: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The statement as seen by one caller. Like the pool's connection handles,
+     * each prepareStatement gets its own, so a late close() cannot release the
+     * statement from under its next user.
+     */
+    private static final class Lease implements InvocationHandler {
+        private CachedStatement statement;
+
+        private Lease(CachedStatement statement) {
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (statement != null) {
+                        statement.release();
+                    }
+                    return null;
+                case "isClosed":
+                    return statement == null || statement.target.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + (statement == null ? "closed" : statement.key.sql) + "]";
+                default:
+                    break;
+            }
+            if (statement == null) {
+                throw new SQLException("Statement is closed");
+            }
+            if (name.equals("addBatch")) {
+                statement.batched = true;
+            } else if (RESTORED_SETTERS.contains(name)) {
+                if (!statement.configured) {
+                    statement.saveSettings();
+                }
+            } else if (UNCACHEABLE_SETTERS.contains(name)) {
+                statement.discarded = true;
+            } else if (name.startsWith("execute")) {
+                // Executing again closes the previous results.
+                statement.resultSets.clear();
+            }
+            Object result;
+            try {
+                result = method.invoke(statement.target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof ResultSet) {
+                statement.resultSets.add((ResultSet) result);
+            }
+            return result;
+        }
+    }
+}
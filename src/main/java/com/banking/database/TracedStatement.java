@@ -0,0 +1,67 @@
+package com.banking.database;
+
+import com.banking.diagnostics.JdbcStatementEvent;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Statement;
+import jdk.jfr.EventType;
+
+/**
+ * Wraps statements created on pooled connections so each execute call emits a
+ * {@link JdbcStatementEvent}. Statements are only wrapped while a recording
+ * has the event enabled, so there is no proxy overhead otherwise.
+ */
+final class TracedStatement implements InvocationHandler {
+    private static final EventType EVENT_TYPE = EventType.getEventType(JdbcStatementEvent.class);
+
+    private final Statement target;
+    private final String sql;
+
+    private TracedStatement(Statement target, String sql) {
+        this.target = target;
+        this.sql = sql;
+    }
+
+    static boolean isEnabled() {
+        return EVENT_TYPE.isEnabled();
+    }
+
+    /** Proxies {@code statement} as {@code type} (Statement, PreparedStatement or CallableStatement). */
+    static Object wrap(Object statement, Class<?> type, String sql) {
+        return Proxy.newProxyInstance(TracedStatement.class.getClassLoader(),
+                new Class<?>[]{type}, new TracedStatement((Statement) statement, sql));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (!name.startsWith("execute")) {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        JdbcStatementEvent event = new JdbcStatementEvent();
+        event.begin();
+        boolean failed = true;
+        try {
+            Object result = method.invoke(target, args);
+            failed = false;
+            return result;
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+                event.method = name;
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.banking.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/** Time spent in {@code ConnectionPool.borrow}, including waiting for a free connection. */
+@Name("com.banking.ConnectionBorrow")
+@Label("Connection Borrow")
+@Category({"Banking", "Database"})
+@Description("Wait for a pooled database connection")
+@Threshold("1 ms")
+public final class ConnectionBorrowEvent extends jdk.jfr.Event {
+    @Label("Active Connections")
+    public int active;
+
+    @Label("Waiting Threads")
+    public int waiting;
+
+    @Label("Timed Out")
+    public boolean timedOut;
+}
@@ -0,0 +1,131 @@
+package com.banking.diagnostics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * Starts and stops JDK Flight Recorder recordings that include the banking
+ * events ({@link TransferEvent}, {@link LoginEvent}, {@link JdbcStatementEvent},
+ * {@link ConnectionBorrowEvent}). Registered as {@code com.banking:type=FlightRecorder}
+ * so recordings can be driven from jconsole; with -Dbanking.jfr.record=default
+ * (or profile, or a .jfc path) a recording starts at launch and is written to
+ * banking.jfr.dir (default: working directory) when the JVM exits.
+ */
+public class FlightRecorderControl implements FlightRecorderControlMBean {
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static volatile FlightRecorderControl instance;
+
+    private Recording recording;
+
+    private FlightRecorderControl() {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(this, new ObjectName("com.banking:type=FlightRecorder"));
+        } catch (JMException e) {
+            System.err.println("Error registering flight recorder MBean: " + e.getMessage());
+        }
+    }
+
+    public static FlightRecorderControl getInstance() {
+        if (instance == null) {
+            synchronized (FlightRecorderControl.class) {
+                if (instance == null) {
+                    instance = new FlightRecorderControl();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** Registers the MBean and starts the launch recording if banking.jfr.record is set. */
+    public static void initialize() {
+        FlightRecorderControl control = getInstance();
+        String settings = System.getProperty("banking.jfr.record", "").trim();
+        if (settings.isEmpty() || control.isRecording()) {
+            return;
+        }
+        try {
+            control.start(settings);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    System.err.println("Flight recording written to " + control.stop(null));
+                } catch (IOException e) {
+                    System.err.println("Error writing flight recording: " + e.getMessage());
+                }
+            }, "jfr-dump"));
+        } catch (IOException | ParseException e) {
+            System.err.println("Could not start flight recording: " + e.getMessage());
+        }
+    }
+
+    /** Starts a recording with a predefined configuration name ("default", "profile") or a .jfc file. */
+    @Override
+    public synchronized void start(String settings) throws IOException, ParseException {
+        if (recording != null) {
+            throw new IllegalStateException("A recording is already running");
+        }
+        Configuration configuration = settings.endsWith(".jfc")
+                ? Configuration.create(Paths.get(settings))
+                : Configuration.getConfiguration(settings);
+        Recording started = new Recording(configuration);
+        started.setName("banking");
+        started.enable(TransferEvent.class);
+        started.enable(LoginEvent.class);
+        started.enable(JdbcStatementEvent.class);
+        started.enable(ConnectionBorrowEvent.class);
+        started.start();
+        recording = started;
+    }
+
+    /** Stops the recording and writes it to {@code path} (or a timestamped file); returns the file. */
+    @Override
+    public synchronized String stop(String path) throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("No recording is running");
+        }
+        Recording stopping = recording;
+        recording = null;
+        try {
+            Path target = target(path);
+            stopping.stop();
+            stopping.dump(target);
+            return target.toAbsolutePath().toString();
+        } finally {
+            stopping.close();
+        }
+    }
+
+    /** Writes what has been recorded so far without stopping. */
+    @Override
+    public synchronized String dump(String path) throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("No recording is running");
+        }
+        Path target = target(path);
+        recording.dump(target);
+        return target.toAbsolutePath().toString();
+    }
+
+    @Override
+    public synchronized boolean isRecording() {
+        return recording != null;
+    }
+
+    private static Path target(String path) {
+        if (path != null && !path.trim().isEmpty()) {
+            return Paths.get(path.trim());
+        }
+        String dir = System.getProperty("banking.jfr.dir", ".");
+        return Paths.get(dir, "banking-" + LocalDateTime.now().format(FILE_TIME) + ".jfr");
+    }
+}
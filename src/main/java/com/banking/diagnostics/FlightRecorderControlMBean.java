@@ -0,0 +1,12 @@
+package com.banking.diagnostics;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+/** JMX operations for starting and dumping Flight Recorder recordings. */
+public interface FlightRecorderControlMBean {
+    void start(String settings) throws IOException, ParseException;
+    String stop(String path) throws IOException;
+    String dump(String path) throws IOException;
+    boolean isRecording();
+}
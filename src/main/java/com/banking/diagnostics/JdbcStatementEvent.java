@@ -0,0 +1,28 @@
+package com.banking.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * One execute call on a pooled connection's statement; the SQL has placeholders,
+ * not values. Only calls of 1 ms or more are recorded unless the threshold is changed.
+ */
+@Name("com.banking.JdbcStatement")
+@Label("JDBC Statement")
+@Category({"Banking", "Database"})
+@Description("Statement execution on a pooled connection")
+@Threshold("1 ms")
+public final class JdbcStatementEvent extends jdk.jfr.Event {
+    @Label("SQL")
+    public String sql;
+
+    @Label("Method")
+    @Description("execute, executeQuery, executeUpdate or executeBatch")
+    public String method;
+
+    @Label("Failed")
+    public boolean failed;
+}
@@ -0,0 +1,19 @@
+package com.banking.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** One {@code AuthenticationService.login} call. Passwords are never recorded. */
+@Name("com.banking.Login")
+@Label("Login")
+@Category({"Banking", "Service"})
+@Description("User login attempt")
+public final class LoginEvent extends jdk.jfr.Event {
+    @Label("Username")
+    public String username;
+
+    @Label("Success")
+    public boolean success;
+}
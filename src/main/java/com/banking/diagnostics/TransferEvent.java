@@ -0,0 +1,26 @@
+package com.banking.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** One {@code BankingService.transferFunds} call with valid arguments, through to its outcome. */
+@Name("com.banking.Transfer")
+@Label("Transfer")
+@Category({"Banking", "Service"})
+@Description("Funds transfer between two accounts")
+public final class TransferEvent extends jdk.jfr.Event {
+    @Label("From Account")
+    public int fromAccountId;
+
+    @Label("To Account")
+    public int toAccountId;
+
+    @Label("Amount (cents)")
+    public long amountCents;
+
+    @Label("Outcome")
+    @Description("COMPLETED, DECLINED or FAILED")
+    public String outcome;
+}
@@ -0,0 +1,106 @@
+package com.banking.engine;
+
+/**
+ * Open-addressing hash table from account_id to a slot holding a balance in
+ * cents, with linear probing over primitive arrays. Slots never move except
+ * on {@link #put} growing the table. Not thread-safe: {@link BalanceEngine}
+ * guards lookups and updates with its stripe locks and inserts with all of them.
+ */
+public final class AccountBalanceTable {
+    private static final int EMPTY = 0;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public AccountBalanceTable(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /** Slot of {@code accountId}, or -1 if absent. Account ids must be positive. */
+    public int slotOf(int accountId) {
+        int slot = mix(accountId) & mask;
+        while (true) {
+            int key = keys[slot];
+            if (key == accountId) {
+                return slot;
+            }
+            if (key == EMPTY) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public long get(int slot) {
+        return values[slot];
+    }
+
+    public void set(int slot, long cents) {
+        values[slot] = cents;
+    }
+
+    /** Inserts or overwrites; returns the account's slot, which may differ from before if the table grew. */
+    public int put(int accountId, long cents) {
+        if (accountId <= 0) {
+            throw new IllegalArgumentException("Account id must be positive: " + accountId);
+        }
+        int slot = slotOf(accountId);
+        if (slot >= 0) {
+            values[slot] = cents;
+            return slot;
+        }
+        if (size >= resizeAt) {
+            grow();
+        }
+        slot = insert(accountId, cents);
+        size++;
+        return slot;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    private int insert(int accountId, long cents) {
+        int slot = mix(accountId) & mask;
+        while (keys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = accountId;
+        values[slot] = cents;
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                insert(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    // Account ids are sequential; spread them so neighbours do not form probe clusters.
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,220 @@
+package com.banking.engine;
+
+import com.banking.dao.AccountDAO;
+import com.banking.model.Account;
+import com.banking.model.Money;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Authoritative in-memory account balances in cents, loaded from the accounts
+ * table and kept in an {@link AccountBalanceTable}. Each account is guarded by
+ * one of a fixed set of striped locks; a transfer takes the (at most two)
+ * stripes in index order, so checks and updates never touch the database.
+ *
+ * The engine does not persist anything itself: the write-behind ledger
+ * journals every applied transfer and writes it to the database afterwards.
+ * Accounts missing from the table (e.g. opened after startup) are loaded on
+ * first use.
+ */
+public class BalanceEngine {
+    public enum Outcome {
+        APPLIED,
+        INSUFFICIENT_FUNDS,
+        ACCOUNT_NOT_FOUND
+    }
+
+    /** Runs while both accounts are locked, before the balances change; throwing aborts the transfer. */
+    public interface CommitHook {
+        void beforeApply() throws IOException;
+    }
+
+    public static final long UNKNOWN = Long.MIN_VALUE;
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final AccountDAO accountDAO;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final AccountBalanceTable table;
+
+    private final AtomicLong appliedTransfers = new AtomicLong();
+    private final AtomicLong rejectedTransfers = new AtomicLong();
+    private final AtomicLong accountLoads = new AtomicLong();
+
+    public BalanceEngine(AccountDAO accountDAO) throws SQLException {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.accountDAO = accountDAO;
+
+        Map<Integer, BigDecimal> balances = accountDAO.getActiveBalances();
+        this.table = new AccountBalanceTable(balances.size() * 2);
+        for (Map.Entry<Integer, BigDecimal> balance : balances.entrySet()) {
+            table.put(balance.getKey(), Money.toCents(balance.getValue()));
+        }
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean("banking.engine.enabled");
+    }
+
+    /**
+     * Moves {@code cents} between two accounts if the source can cover it.
+     * {@code hook}, if given, runs under the account locks just before the
+     * balances are updated, so its side effects are ordered like the updates.
+     */
+    public Outcome transfer(int fromAccountId, int toAccountId, long cents, CommitHook hook) throws IOException {
+        if (cents <= 0 || fromAccountId == toAccountId) {
+            throw new IllegalArgumentException("Invalid transfer");
+        }
+        if (!ensureLoaded(fromAccountId) || !ensureLoaded(toAccountId)) {
+            return Outcome.ACCOUNT_NOT_FOUND;
+        }
+
+        int first = stripe(fromAccountId);
+        int second = stripe(toAccountId);
+        if (first > second) {
+            int swap = first;
+            first = second;
+            second = swap;
+        }
+        locks[first].lock();
+        if (second != first) {
+            locks[second].lock();
+        }
+        try {
+            int fromSlot = table.slotOf(fromAccountId);
+            int toSlot = table.slotOf(toAccountId);
+            long fromBalance = table.get(fromSlot);
+            if (fromBalance < cents) {
+                rejectedTransfers.incrementAndGet();
+                return Outcome.INSUFFICIENT_FUNDS;
+            }
+            long toBalance = Money.add(table.get(toSlot), cents);
+            if (hook != null) {
+                hook.beforeApply();
+            }
+            table.set(fromSlot, fromBalance - cents);
+            table.set(toSlot, toBalance);
+            appliedTransfers.incrementAndGet();
+            return Outcome.APPLIED;
+        } finally {
+            if (second != first) {
+                locks[second].unlock();
+            }
+            locks[first].unlock();
+        }
+    }
+
+    /** Subtracts {@code cents} if the balance covers it, e.g. to reserve a batch total. */
+    public Outcome tryDebit(int accountId, long cents) {
+        if (!ensureLoaded(accountId)) {
+            return Outcome.ACCOUNT_NOT_FOUND;
+        }
+        ReentrantLock lock = locks[stripe(accountId)];
+        lock.lock();
+        try {
+            int slot = table.slotOf(accountId);
+            long balance = table.get(slot);
+            if (balance < cents) {
+                rejectedTransfers.incrementAndGet();
+                return Outcome.INSUFFICIENT_FUNDS;
+            }
+            table.set(slot, balance - cents);
+            return Outcome.APPLIED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Adds {@code cents} (which may be negative) without a balance check, for replay and reversals. */
+    public void adjust(int accountId, long cents) {
+        if (!ensureLoaded(accountId)) {
+            return;
+        }
+        ReentrantLock lock = locks[stripe(accountId)];
+        lock.lock();
+        try {
+            int slot = table.slotOf(accountId);
+            table.set(slot, Money.add(table.get(slot), cents));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Current balance in cents, or {@link #UNKNOWN} if the account does not exist. */
+    public long getBalanceCents(int accountId) {
+        if (!ensureLoaded(accountId)) {
+            return UNKNOWN;
+        }
+        ReentrantLock lock = locks[stripe(accountId)];
+        lock.lock();
+        try {
+            return table.get(table.slotOf(accountId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public BigDecimal getBalance(int accountId) {
+        long cents = getBalanceCents(accountId);
+        return cents == UNKNOWN ? null : Money.toBigDecimal(cents);
+    }
+
+    public int getAccountCount() {
+        ReentrantLock lock = locks[0];
+        lock.lock();
+        try {
+            return table.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAppliedTransferCount() { return appliedTransfers.get(); }
+    public long getRejectedTransferCount() { return rejectedTransfers.get(); }
+    public long getAccountLoadCount() { return accountLoads.get(); }
+
+    private boolean ensureLoaded(int accountId) {
+        if (accountId <= 0) {
+            return false;
+        }
+        ReentrantLock lock = locks[stripe(accountId)];
+        lock.lock();
+        try {
+            if (table.slotOf(accountId) >= 0) {
+                return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        Account account = accountDAO.getAccountById(accountId);
+        if (account == null) {
+            return false;
+        }
+        // Inserting may grow the table and move every slot, so it excludes all stripes.
+        for (ReentrantLock stripeLock : locks) {
+            stripeLock.lock();
+        }
+        try {
+            if (table.slotOf(accountId) < 0) {
+                table.put(accountId, account.getBalanceCents());
+                accountLoads.incrementAndGet();
+            }
+            return true;
+        } finally {
+            for (int i = LOCK_STRIPES - 1; i >= 0; i--) {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    private static int stripe(int accountId) {
+        return Math.floorMod(accountId, LOCK_STRIPES);
+    }
+}
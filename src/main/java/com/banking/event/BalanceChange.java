@@ -0,0 +1,29 @@
+package com.banking.event;
+
+import java.math.BigDecimal;
+
+/**
+ * A committed account balance. {@code version} comes from
+ * {@link BalanceEventBus#nextVersion()} and increases with every change to
+ * the same account, so listeners can drop out-of-order events.
+ */
+public class BalanceChange {
+    private final int accountId;
+    private final BigDecimal balance;
+    private final long version;
+
+    public BalanceChange(int accountId, BigDecimal balance, long version) {
+        this.accountId = accountId;
+        this.balance = balance;
+        this.version = version;
+    }
+
+    public int getAccountId() { return accountId; }
+    public BigDecimal getBalance() { return balance; }
+    public long getVersion() { return version; }
+
+    @Override
+    public String toString() {
+        return "BalanceChange[account=" + accountId + ", balance=" + balance + ", version=" + version + "]";
+    }
+}
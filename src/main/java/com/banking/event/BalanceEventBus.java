@@ -0,0 +1,98 @@
+package com.banking.event;
+
+import java.util.Collection;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process publish/subscribe bus for committed balance changes. Publishing
+ * only enqueues, so transfer threads never run listener code; a single daemon
+ * thread delivers events to subscribers in publish order.
+ *
+ * The bus also hands out the versions events carry. A writer draws one with
+ * {@link #nextVersion()} while it still holds the row locks of the accounts
+ * it changed, before committing, so for each account versions follow commit
+ * order whichever path (direct, batch or ledger) made the change.
+ */
+public class BalanceEventBus {
+    private static volatile BalanceEventBus instance;
+
+    private final CopyOnWriteArrayList<BalanceListener> listeners = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<BalanceChange> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong versions = new AtomicLong();
+    private final Thread dispatcher;
+
+    private BalanceEventBus() {
+        this.dispatcher = new Thread(this::dispatch, "balance-events");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    public static BalanceEventBus getInstance() {
+        if (instance == null) {
+            synchronized (BalanceEventBus.class) {
+                if (instance == null) {
+                    instance = new BalanceEventBus();
+                }
+            }
+        }
+        return instance;
+    }
+
+    public void subscribe(BalanceListener listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(BalanceListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void publish(BalanceChange change) {
+        if (!listeners.isEmpty()) {
+            queue.add(change);
+        }
+    }
+
+    public void publishAll(Collection<BalanceChange> changes) {
+        if (!listeners.isEmpty()) {
+            queue.addAll(changes);
+        }
+    }
+
+    /** A new version for balances about to be committed; call while their rows are locked. */
+    public long nextVersion() {
+        return versions.incrementAndGet();
+    }
+
+    /**
+     * The last version handed out. Balances read from the database after this
+     * call include every change with this version or lower, barring one whose
+     * writer has drawn its version but not yet committed.
+     */
+    public long currentVersion() {
+        return versions.get();
+    }
+
+    public int getSubscriberCount() { return listeners.size(); }
+    public int getBacklog() { return queue.size(); }
+
+    private void dispatch() {
+        while (true) {
+            BalanceChange change;
+            try {
+                change = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            for (BalanceListener listener : listeners) {
+                try {
+                    listener.onBalanceChanged(change);
+                } catch (RuntimeException e) {
+                    System.err.println("Balance listener failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.banking.event;
+
+public interface BalanceListener {
+    /** Called on the event bus thread; implementations must not block. */
+    void onBalanceChanged(BalanceChange change);
+}
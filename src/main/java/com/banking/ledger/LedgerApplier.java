@@ -0,0 +1,173 @@
+package com.banking.ledger;
+
+import com.banking.dao.LedgerDAO;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Background thread that drains durable journal entries in sequence order and
+ * writes them to the database in batches. A batch that the database rejects
+ * is retried entry by entry so a single bad transfer cannot block the rest.
+ * Only an integrity or data error (SQLState class 23 or 22, or a CHECK
+ * violation) marks an entry FAILED; any other error leaves it in place and
+ * the batch is retried, since the transfer was already acknowledged. An
+ * entry whose idempotency key is already stored repeats an earlier transfer
+ * and is skipped without writing anything.
+ */
+public class LedgerApplier {
+    private static final long RETRY_DELAY_MILLIS = 1_000;
+    // MySQL reports CHECK constraint violations as HY000 with this error code.
+    private static final int MYSQL_CHECK_VIOLATED = 3819;
+
+    private final LedgerDAO ledgerDAO;
+    private final int maxBatchSize;
+    private final LongConsumer appliedListener;
+    private final Consumer<LedgerEntry> rejectedListener;
+    private final BlockingQueue<LedgerEntry> queue = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    private final AtomicLong appliedEntries = new AtomicLong();
+    private final AtomicLong appliedBatches = new AtomicLong();
+    private final AtomicLong failedEntries = new AtomicLong();
+    private final AtomicLong duplicateEntries = new AtomicLong();
+
+    public LedgerApplier(LedgerDAO ledgerDAO, int maxBatchSize, LongConsumer appliedListener) {
+        this(ledgerDAO, maxBatchSize, appliedListener, null);
+    }
+
+    /** {@code rejectedListener} is told about entries recorded as FAILED instead of applied. */
+    public LedgerApplier(LedgerDAO ledgerDAO, int maxBatchSize, LongConsumer appliedListener,
+                         Consumer<LedgerEntry> rejectedListener) {
+        this.ledgerDAO = ledgerDAO;
+        this.maxBatchSize = maxBatchSize;
+        this.appliedListener = appliedListener;
+        this.rejectedListener = rejectedListener;
+        this.worker = new Thread(this::run, "ledger-applier");
+        worker.setDaemon(true);
+    }
+
+    public void start() {
+        worker.start();
+    }
+
+    public void enqueue(LedgerEntry entry) {
+        queue.add(entry);
+    }
+
+    public int getBacklog() { return queue.size(); }
+    public long getAppliedEntryCount() { return appliedEntries.get(); }
+    public long getAppliedBatchCount() { return appliedBatches.get(); }
+    public long getFailedEntryCount() { return failedEntries.get(); }
+    public long getDuplicateEntryCount() { return duplicateEntries.get(); }
+
+    /** Stops after the entries already queued have been applied, or the timeout expires. */
+    public void shutdown(long timeoutMillis) {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<LedgerEntry> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    LedgerEntry first = running ? queue.poll(1, TimeUnit.SECONDS) : queue.poll();
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatchSize - 1);
+                }
+                applyWithFallback(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                if (!running && !batch.isEmpty()) {
+                    // Entries stay in the journal and are replayed on the next start.
+                    return;
+                }
+            } catch (SQLException | RuntimeException e) {
+                // Includes DatabaseBusyException from the pool; the applier must outlive any single failure.
+                System.err.println("Ledger apply failed, will retry: " + e.getMessage());
+                if (!running) {
+                    return;
+                }
+                try {
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                } catch (InterruptedException ignored) {
+                    // re-checked at the top of the loop
+                }
+            }
+        }
+    }
+
+    private void applyWithFallback(List<LedgerEntry> batch) throws SQLException {
+        try {
+            long applied = ledgerDAO.applyBatch(batch);
+            appliedEntries.addAndGet(batch.size());
+            appliedBatches.incrementAndGet();
+            appliedListener.accept(applied);
+            return;
+        } catch (SQLException e) {
+            if (batch.size() == 1) {
+                applySingle(batch.get(0), e);
+                return;
+            }
+        }
+
+        for (LedgerEntry entry : batch) {
+            try {
+                appliedListener.accept(ledgerDAO.applyBatch(List.of(entry)));
+                appliedEntries.incrementAndGet();
+            } catch (SQLException e) {
+                applySingle(entry, e);
+            }
+        }
+        appliedBatches.incrementAndGet();
+    }
+
+    private void applySingle(LedgerEntry entry, SQLException cause) throws SQLException {
+        if (!isRejection(cause)) {
+            throw cause;
+        }
+        // If the database is unreachable these throw too and the whole batch is retried later.
+        long applied;
+        if (entry.getIdempotencyKey() != null && isDuplicateKey(cause)) {
+            applied = ledgerDAO.skip(entry);
+            duplicateEntries.incrementAndGet();
+        } else {
+            applied = ledgerDAO.recordFailed(entry);
+            failedEntries.incrementAndGet();
+            System.err.println("Ledger entry " + entry.getSequence() + " rejected by database: " + cause.getMessage());
+        }
+        // Either way its money did not move.
+        if (rejectedListener != null) {
+            rejectedListener.accept(entry);
+        }
+        appliedListener.accept(applied);
+    }
+
+    // 23505 is the standard unique violation; MySQL reports 23000 with error 1062.
+    private static boolean isDuplicateKey(SQLException e) {
+        return "23505".equals(e.getSQLState()) || e.getErrorCode() == 1062;
+    }
+
+    /** True if the database refused the entry itself, as opposed to failing to run it. */
+    static boolean isRejection(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && (state.startsWith("23") || state.startsWith("22"))
+                || e.getErrorCode() == MYSQL_CHECK_VIOLATED;
+    }
+}
@@ -0,0 +1,65 @@
+package com.banking.ledger;
+
+import com.banking.model.Money;
+import java.math.BigDecimal;
+
+/**
+ * One journaled transfer. Amounts are kept in cents so the on-disk record is
+ * fixed-width apart from the type and description strings.
+ */
+public class LedgerEntry {
+    private long sequence;
+    private final int fromAccountId;
+    private final int toAccountId;
+    private final String transactionType;
+    private final long amountCents;
+    private final String description;
+    private final long timestampMillis;
+    private final String idempotencyKey;
+    private long balanceVersion;
+
+    public LedgerEntry(int fromAccountId, int toAccountId, String transactionType,
+                       BigDecimal amount, String description) {
+        this(fromAccountId, toAccountId, transactionType, Money.toCents(amount), description);
+    }
+
+    public LedgerEntry(int fromAccountId, int toAccountId, String transactionType,
+                       long amountCents, String description) {
+        this(fromAccountId, toAccountId, transactionType, amountCents, description, null);
+    }
+
+    /** {@code idempotencyKey} is stored with the transaction when it is applied; null for none. */
+    public LedgerEntry(int fromAccountId, int toAccountId, String transactionType,
+                       long amountCents, String description, String idempotencyKey) {
+        this(0, fromAccountId, toAccountId, transactionType, amountCents, description,
+                System.currentTimeMillis(), idempotencyKey);
+    }
+
+    LedgerEntry(long sequence, int fromAccountId, int toAccountId, String transactionType,
+                long amountCents, String description, long timestampMillis, String idempotencyKey) {
+        this.sequence = sequence;
+        this.fromAccountId = fromAccountId;
+        this.toAccountId = toAccountId;
+        this.transactionType = transactionType;
+        this.amountCents = amountCents;
+        this.description = description;
+        this.timestampMillis = timestampMillis;
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public long getSequence() { return sequence; }
+    void setSequence(long sequence) { this.sequence = sequence; }
+
+    public int getFromAccountId() { return fromAccountId; }
+    public int getToAccountId() { return toAccountId; }
+    public String getTransactionType() { return transactionType; }
+    public long getAmountCents() { return amountCents; }
+    public BigDecimal getAmount() { return Money.toBigDecimal(amountCents); }
+    public String getDescription() { return description; }
+    public long getTimestampMillis() { return timestampMillis; }
+    public String getIdempotencyKey() { return idempotencyKey; }
+
+    /** The BalanceEventBus version its balance changes were committed under, or 0 if not applied. */
+    public long getBalanceVersion() { return balanceVersion; }
+    public void setBalanceVersion(long balanceVersion) { this.balanceVersion = balanceVersion; }
+}
@@ -0,0 +1,391 @@
+package com.banking.ledger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped transfer journal split into fixed-size segment
+ * files named after the first sequence they contain.
+ *
+ * Appends are written into the mapping under a lock and completed by a single
+ * flusher thread, which waits a short group-commit window so that concurrent
+ * appends share one force() call. Entries are handed to the durable listener
+ * strictly in sequence order, after they have been forced to disk. If a
+ * force fails, every pending append fails with it and the journal refuses
+ * further appends; what reached the disk is recovered on the next start.
+ *
+ * Record layout: [int bodyLength][int crc32(body)][body], where body is
+ * seq, from, to, amountCents, timestamp, type, description and idempotency
+ * key. Records written before the key was added end after the description
+ * and are read back without one. A zero length or checksum mismatch marks
+ * the end of the valid data in a segment.
+ */
+public class LedgerJournal implements AutoCloseable {
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final int HEADER_SIZE = 8;
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final long groupCommitWindowNanos;
+    private final int groupCommitMaxBatch;
+    private final Consumer<LedgerEntry> durableListener;
+
+    private final Object writeLock = new Object();
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private final ConcurrentLinkedQueue<PendingAppend> pending = new ConcurrentLinkedQueue<>();
+    private final List<LedgerEntry> unapplied = new ArrayList<>();
+    private final Thread flusher;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long nextSequence;
+    private long lastWrittenSequence;
+    private volatile long durableSequence;
+    private volatile boolean running = true;
+    private boolean flusherIdle;
+    private Throwable failure;
+
+    private final AtomicLong appendCount = new AtomicLong();
+    private final AtomicLong forceCount = new AtomicLong();
+
+    public LedgerJournal(Path directory, long appliedSequence, long groupCommitWindowMicros,
+                         int groupCommitMaxBatch, Consumer<LedgerEntry> durableListener) throws IOException {
+        this.directory = directory;
+        this.groupCommitWindowNanos = TimeUnit.MICROSECONDS.toNanos(groupCommitWindowMicros);
+        this.groupCommitMaxBatch = groupCommitMaxBatch;
+        this.durableListener = durableListener;
+
+        Files.createDirectories(directory);
+        recover(appliedSequence);
+
+        this.flusher = new Thread(this::runFlusher, "ledger-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /** Entries found on disk at startup that the database has not applied yet, in sequence order. */
+    public List<LedgerEntry> getUnappliedEntries() {
+        return Collections.unmodifiableList(unapplied);
+    }
+
+    /**
+     * Writes the entry to the journal and assigns its sequence. The returned
+     * future completes once the entry is durable on disk.
+     */
+    public CompletableFuture<LedgerEntry> append(LedgerEntry entry) throws IOException {
+        byte[] type = entry.getTransactionType().getBytes(StandardCharsets.UTF_8);
+        byte[] description = entry.getDescription() == null
+                ? new byte[0] : entry.getDescription().getBytes(StandardCharsets.UTF_8);
+        byte[] key = entry.getIdempotencyKey() == null
+                ? new byte[0] : entry.getIdempotencyKey().getBytes(StandardCharsets.UTF_8);
+        int bodyLength = 8 + 4 + 4 + 8 + 8 + 2 + type.length + 4 + description.length + 2 + key.length;
+        if (HEADER_SIZE + bodyLength > SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Ledger entry too large: " + bodyLength + " bytes");
+        }
+
+        CompletableFuture<LedgerEntry> future = new CompletableFuture<>();
+        synchronized (writeLock) {
+            if (!running) {
+                throw failure == null ? new IOException("Ledger journal is closed")
+                        : new IOException("Ledger journal failed: " + failure.getMessage(), failure);
+            }
+            if (buffer.remaining() < HEADER_SIZE + bodyLength) {
+                rollSegment();
+            }
+
+            long sequence = nextSequence++;
+            entry.setSequence(sequence);
+
+            byte[] body = new byte[bodyLength];
+            ByteBuffer bodyBuffer = ByteBuffer.wrap(body);
+            bodyBuffer.putLong(sequence);
+            bodyBuffer.putInt(entry.getFromAccountId());
+            bodyBuffer.putInt(entry.getToAccountId());
+            bodyBuffer.putLong(entry.getAmountCents());
+            bodyBuffer.putLong(entry.getTimestampMillis());
+            bodyBuffer.putShort((short) type.length);
+            bodyBuffer.put(type);
+            bodyBuffer.putInt(description.length);
+            bodyBuffer.put(description);
+            bodyBuffer.putShort((short) key.length);
+            bodyBuffer.put(key);
+
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            buffer.putInt(bodyLength);
+            buffer.putInt((int) crc.getValue());
+            buffer.put(body);
+
+            lastWrittenSequence = sequence;
+            pending.add(new PendingAppend(entry, future));
+            appendCount.incrementAndGet();
+            if (flusherIdle || lastWrittenSequence - durableSequence >= groupCommitMaxBatch) {
+                writeLock.notifyAll();
+            }
+        }
+        return future;
+    }
+
+    /** Deletes segments whose entries have all been applied to the database. */
+    public void releaseUpTo(long appliedSequence) {
+        synchronized (writeLock) {
+            List<Long> obsolete = new ArrayList<>();
+            Long previous = null;
+            for (Long firstSequence : segments.keySet()) {
+                if (previous != null && firstSequence - 1 <= appliedSequence) {
+                    obsolete.add(previous);
+                }
+                previous = firstSequence;
+            }
+            for (Long firstSequence : obsolete) {
+                Path path = segments.remove(firstSequence);
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    System.err.println("Failed to delete ledger segment " + path + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /** True once a flush has failed; appends are refused from then on. */
+    public boolean isFailed() {
+        synchronized (writeLock) {
+            return failure != null;
+        }
+    }
+
+    public long getDurableSequence() { return durableSequence; }
+    public long getAppendCount() { return appendCount.get(); }
+    public long getForceCount() { return forceCount.get(); }
+
+    public double getAverageGroupSize() {
+        long forces = forceCount.get();
+        return forces == 0 ? 0.0 : (double) appendCount.get() / forces;
+    }
+
+    @Override
+    public void close() {
+        synchronized (writeLock) {
+            running = false;
+            writeLock.notifyAll();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (writeLock) {
+            try {
+                if (failure == null) {
+                    buffer.force();
+                }
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close ledger journal: " + e.getMessage());
+            }
+        }
+    }
+
+    private void runFlusher() {
+        try {
+            flushUntilClosed();
+        } catch (RuntimeException | Error e) {
+            // force() reports I/O errors unchecked; without this the appends waiting on it never complete.
+            fail(e);
+        }
+    }
+
+    private void flushUntilClosed() {
+        while (true) {
+            long target;
+            MappedByteBuffer toForce;
+            synchronized (writeLock) {
+                while (running && lastWrittenSequence == durableSequence) {
+                    flusherIdle = true;
+                    try {
+                        writeLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } finally {
+                        flusherIdle = false;
+                    }
+                }
+                if (lastWrittenSequence == durableSequence) {
+                    return;
+                }
+                if (running && groupCommitWindowNanos > 0
+                        && lastWrittenSequence - durableSequence < groupCommitMaxBatch) {
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(writeLock, groupCommitWindowNanos);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                target = lastWrittenSequence;
+                toForce = buffer;
+            }
+
+            toForce.force();
+            forceCount.incrementAndGet();
+            durableSequence = target;
+
+            PendingAppend append;
+            while ((append = pending.peek()) != null && append.entry.getSequence() <= target) {
+                try {
+                    durableListener.accept(append.entry);
+                } catch (RuntimeException e) {
+                    System.err.println("Ledger durable listener failed: " + e.getMessage());
+                }
+                append.future.complete(append.entry);
+                // Removed only once completed, so fail() still reaches it if anything above throws.
+                pending.poll();
+            }
+        }
+    }
+
+    private void fail(Throwable cause) {
+        System.err.println("Ledger journal flush failed, refusing further transfers: " + cause);
+        synchronized (writeLock) {
+            failure = cause;
+            running = false;
+            writeLock.notifyAll();
+        }
+        // Appends check running under writeLock, so nothing is added to pending after this point.
+        IOException error = new IOException("Ledger journal flush failed: " + cause.getMessage(), cause);
+        PendingAppend append;
+        while ((append = pending.poll()) != null) {
+            append.future.completeExceptionally(error);
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        buffer.force();
+        channel.close();
+        openSegment(nextSequence);
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", firstSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+        segments.put(firstSequence, path);
+    }
+
+    private void recover(long appliedSequence) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                 .forEach(p -> {
+                     String name = p.getFileName().toString();
+                     segments.put(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), p);
+                 });
+        }
+
+        long lastSequence = appliedSequence;
+        int lastSegmentEnd = 0;
+        for (Map.Entry<Long, Path> segment : segments.entrySet()) {
+            try (FileChannel ch = FileChannel.open(segment.getValue(), StandardOpenOption.READ)) {
+                ByteBuffer data = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                lastSegmentEnd = 0;
+                LedgerEntry entry;
+                while ((entry = readRecord(data)) != null) {
+                    lastSegmentEnd = data.position();
+                    lastSequence = Math.max(lastSequence, entry.getSequence());
+                    if (entry.getSequence() > appliedSequence) {
+                        unapplied.add(entry);
+                    }
+                }
+            }
+        }
+
+        nextSequence = lastSequence + 1;
+        lastWrittenSequence = lastSequence;
+        durableSequence = lastSequence;
+
+        if (segments.isEmpty()) {
+            openSegment(nextSequence);
+        } else {
+            Map.Entry<Long, Path> active = segments.lastEntry();
+            channel = FileChannel.open(active.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+            buffer.position(lastSegmentEnd);
+            if (buffer.remaining() >= HEADER_SIZE) {
+                // Clear a torn record so it cannot be mistaken for data on the next recovery.
+                buffer.putInt(lastSegmentEnd, 0);
+            }
+        }
+    }
+
+    private static LedgerEntry readRecord(ByteBuffer data) {
+        if (data.remaining() < HEADER_SIZE) {
+            return null;
+        }
+        int start = data.position();
+        int bodyLength = data.getInt();
+        if (bodyLength <= 0 || bodyLength > data.remaining() - 4) {
+            data.position(start);
+            return null;
+        }
+        int storedCrc = data.getInt();
+        byte[] body = new byte[bodyLength];
+        data.get(body);
+
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        if ((int) crc.getValue() != storedCrc) {
+            data.position(start);
+            return null;
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(body);
+        long sequence = in.getLong();
+        int fromAccountId = in.getInt();
+        int toAccountId = in.getInt();
+        long amountCents = in.getLong();
+        long timestampMillis = in.getLong();
+        byte[] type = new byte[in.getShort()];
+        in.get(type);
+        byte[] description = new byte[in.getInt()];
+        in.get(description);
+        String idempotencyKey = null;
+        if (in.hasRemaining()) {
+            byte[] key = new byte[in.getShort()];
+            in.get(key);
+            idempotencyKey = key.length == 0 ? null : new String(key, StandardCharsets.UTF_8);
+        }
+
+        return new LedgerEntry(sequence, fromAccountId, toAccountId,
+                new String(type, StandardCharsets.UTF_8), amountCents,
+                new String(description, StandardCharsets.UTF_8), timestampMillis, idempotencyKey);
+    }
+
+    private static final class PendingAppend {
+        private final LedgerEntry entry;
+        private final CompletableFuture<LedgerEntry> future;
+
+        private PendingAppend(LedgerEntry entry, CompletableFuture<LedgerEntry> future) {
+            this.entry = entry;
+            this.future = future;
+        }
+    }
+}
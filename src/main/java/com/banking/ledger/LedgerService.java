@@ -0,0 +1,326 @@
+package com.banking.ledger;
+
+import com.banking.cache.AccountCache;
+import com.banking.dao.AccountDAO;
+import com.banking.dao.LedgerDAO;
+import com.banking.engine.BalanceEngine;
+import com.banking.event.BalanceChange;
+import com.banking.event.BalanceEventBus;
+import com.banking.model.Account;
+import com.banking.model.Money;
+import com.banking.service.HotAccountService;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Write-behind transfer path. A transfer is validated against the database
+ * balance minus debits that are journaled but not yet applied, appended to the
+ * {@link LedgerJournal}, and acknowledged as soon as its group commit is on
+ * disk. {@link LedgerApplier} writes it to the database afterwards.
+ *
+ * With -Dbanking.engine.enabled=true, transfers are instead validated and
+ * applied against the in-memory {@link BalanceEngine}, which is loaded here
+ * before replay so it reflects journaled entries the database has not seen.
+ *
+ * Enabled with -Dbanking.ledger.enabled=true (implied by the engine); the
+ * journal lives in banking.ledger.dir (default "ledger"). A submission waits
+ * at most banking.ledger.flushTimeoutMillis (default 10000) for its flush.
+ */
+public class LedgerService {
+    private static final int LOCK_STRIPES = 64;
+
+    private static volatile LedgerService instance;
+
+    private final LedgerJournal journal;
+    private final LedgerApplier applier;
+    private final BalanceEngine engine;
+    private final long flushTimeoutMillis = Long.getLong("banking.ledger.flushTimeoutMillis", 10_000L);
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    // Pending debits released per stripe, guarded by the stripe's lock.
+    private final long[] releases = new long[LOCK_STRIPES];
+    private final ConcurrentHashMap<Integer, AtomicLong> pendingDebits = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<LedgerEntry> inFlight = new ConcurrentLinkedQueue<>();
+
+    private LedgerService() throws IOException, SQLException {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        AccountDAO accountDAO = new AccountDAO();
+
+        LedgerDAO ledgerDAO = new LedgerDAO();
+        long appliedSequence = ledgerDAO.getLastAppliedSequence();
+        // The engine loads accounts.balance, which excludes credits still sitting in hot-account slots.
+        HotAccountService.retireUnconfigured();
+        if (BalanceEngine.isEnabled() && HotAccountService.isEnabled()) {
+            HotAccountService.getInstance().foldAll();
+        }
+        this.engine = BalanceEngine.isEnabled() ? new BalanceEngine(accountDAO) : null;
+
+        this.applier = new LedgerApplier(ledgerDAO,
+                Integer.getInteger("banking.ledger.applyBatchSize", 500), this::onApplied, this::onRejected);
+        this.journal = new LedgerJournal(
+                Paths.get(System.getProperty("banking.ledger.dir", "ledger")),
+                appliedSequence,
+                Long.getLong("banking.ledger.groupCommitMicros", 2_000L),
+                Integer.getInteger("banking.ledger.groupCommitMaxBatch", 256),
+                this::onDurable);
+
+        // Replay anything journaled but not yet in the database before accepting new transfers.
+        List<LedgerEntry> unapplied = journal.getUnappliedEntries();
+        if (!unapplied.isEmpty()) {
+            System.err.println("Replaying " + unapplied.size() + " ledger entries from the previous run");
+        }
+        for (LedgerEntry entry : unapplied) {
+            if (engine != null) {
+                engine.adjust(entry.getFromAccountId(), -entry.getAmountCents());
+                engine.adjust(entry.getToAccountId(), entry.getAmountCents());
+            } else {
+                addPendingDebit(entry.getFromAccountId(), entry.getAmountCents());
+            }
+            onDurable(entry);
+        }
+        applier.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "ledger-shutdown"));
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean("banking.ledger.enabled") || BalanceEngine.isEnabled();
+    }
+
+    public static LedgerService getInstance() {
+        if (instance == null) {
+            synchronized (LedgerService.class) {
+                if (instance == null) {
+                    try {
+                        instance = new LedgerService();
+                    } catch (IOException | SQLException e) {
+                        throw new IllegalStateException("Failed to start ledger journal: " + e.getMessage(), e);
+                    }
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Journals a transfer and returns once it is durable. Returns false if
+     * either account is missing, the available balance is insufficient, or the
+     * journal refused the entry. Throws TransferOutcomeUnknownException if the
+     * entry was journaled but its flush failed, timed out or was interrupted.
+     */
+    public boolean submitTransfer(int fromAccountId, int toAccountId, BigDecimal amount, String description) {
+        return submitTransfer(fromAccountId, toAccountId, Money.toCents(amount), description);
+    }
+
+    public boolean submitTransfer(int fromAccountId, int toAccountId, long amountCents, String description) {
+        return submitTransfer(fromAccountId, toAccountId, amountCents, description, null);
+    }
+
+    /** As above; {@code idempotencyKey} is journaled and stored with the applied transaction. */
+    public boolean submitTransfer(int fromAccountId, int toAccountId, long amountCents, String description,
+                                  String idempotencyKey) {
+        LedgerEntry entry = new LedgerEntry(fromAccountId, toAccountId, "TRANSFER", amountCents, description,
+                idempotencyKey);
+        if (engine != null) {
+            return submitToEngine(entry);
+        }
+        // An account deleted since it was cached is caught when the entry is applied.
+        if (AccountCache.getInstance().getById(toAccountId) == null) {
+            return false;
+        }
+
+        if (reservePendingDebit(fromAccountId, entry.getAmountCents()) != BalanceEngine.Outcome.APPLIED) {
+            return false;
+        }
+
+        try {
+            journal.append(entry).get(flushTimeoutMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (IOException e) {
+            // Refused before anything was written.
+            addPendingDebit(fromAccountId, -entry.getAmountCents());
+            System.err.println("Error journaling transfer: " + e.getMessage());
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            // Written but not confirmed on disk, so the debit stays reserved.
+            throw outcomeUnknown(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw outcomeUnknown(e);
+        }
+    }
+
+    private boolean submitToEngine(LedgerEntry entry) {
+        AtomicReference<CompletableFuture<LedgerEntry>> durable = new AtomicReference<>();
+        try {
+            // Appending under the engine's account locks keeps journal order equal to apply order.
+            BalanceEngine.Outcome outcome = engine.transfer(entry.getFromAccountId(), entry.getToAccountId(),
+                    entry.getAmountCents(), () -> durable.set(journal.append(entry)));
+            if (outcome != BalanceEngine.Outcome.APPLIED) {
+                return false;
+            }
+        } catch (IOException e) {
+            System.err.println("Error journaling transfer: " + e.getMessage());
+            return false;
+        }
+
+        try {
+            durable.get().get(flushTimeoutMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            // Already applied in memory and written to the journal, so it must not be reported as declined.
+            throw outcomeUnknown(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw outcomeUnknown(e);
+        }
+    }
+
+    /**
+     * Reserves {@code cents} of the account's available balance for a debit
+     * the caller commits to the database itself, such as a transfer batch.
+     * Every APPLIED reservation must be ended with {@link #settleDebit}.
+     */
+    public BalanceEngine.Outcome reserveDebit(int accountId, long cents) {
+        return engine != null ? engine.tryDebit(accountId, cents) : reservePendingDebit(accountId, cents);
+    }
+
+    /**
+     * Ends a reservation once {@code committedCents} of it has been committed
+     * to the database and the account has been invalidated in AccountCache.
+     */
+    public void settleDebit(int accountId, long reservedCents, long committedCents) {
+        if (engine != null) {
+            // The engine balance already shows the debit; only the uncommitted part is returned.
+            engine.adjust(accountId, reservedCents - committedCents);
+        } else {
+            // The database balance now includes the committed part, so the whole reservation goes.
+            synchronized (lockFor(accountId)) {
+                releasePendingDebit(accountId, reservedCents);
+            }
+        }
+    }
+
+    /** The in-memory balance engine, or null when it is not enabled. */
+    public BalanceEngine getBalanceEngine() { return engine; }
+    public LedgerJournal getJournal() { return journal; }
+    public LedgerApplier getApplier() { return applier; }
+
+    public void shutdown() {
+        journal.close();
+        applier.shutdown(10_000);
+    }
+
+    private void onDurable(LedgerEntry entry) {
+        inFlight.add(entry);
+        applier.enqueue(entry);
+    }
+
+    private void onApplied(long appliedSequence) {
+        Map<Integer, Long> changed = new TreeMap<>();
+        LedgerEntry entry;
+        while ((entry = inFlight.peek()) != null && entry.getSequence() <= appliedSequence) {
+            inFlight.poll();
+            // Invalidated first, so a cached balance from before the debit is gone once the pending debit is.
+            AccountCache.getInstance().invalidate(entry.getFromAccountId());
+            AccountCache.getInstance().invalidate(entry.getToAccountId());
+            if (engine == null) {
+                synchronized (lockFor(entry.getFromAccountId())) {
+                    releasePendingDebit(entry.getFromAccountId(), entry.getAmountCents());
+                }
+            }
+            if (entry.getBalanceVersion() > 0) {
+                changed.merge(entry.getFromAccountId(), entry.getBalanceVersion(), Math::max);
+                changed.merge(entry.getToAccountId(), entry.getBalanceVersion(), Math::max);
+            }
+        }
+        journal.releaseUpTo(appliedSequence);
+        publishBalances(changed);
+    }
+
+    private void onRejected(LedgerEntry entry) {
+        if (engine != null) {
+            engine.adjust(entry.getFromAccountId(), entry.getAmountCents());
+            engine.adjust(entry.getToAccountId(), -entry.getAmountCents());
+        }
+    }
+
+    // Each account carries the version of the last apply that changed it. The balance is read
+    // after that commit, so it is never older than its version; rejected entries changed nothing.
+    private void publishBalances(Map<Integer, Long> versions) {
+        BalanceEventBus bus = BalanceEventBus.getInstance();
+        if (bus.getSubscriberCount() == 0) {
+            return;
+        }
+        for (Map.Entry<Integer, Long> version : versions.entrySet()) {
+            Account account = AccountCache.getInstance().getById(version.getKey());
+            if (account != null) {
+                bus.publish(new BalanceChange(version.getKey(), account.getBalance(), version.getValue()));
+            }
+        }
+    }
+
+    private static TransferOutcomeUnknownException outcomeUnknown(Exception cause) {
+        Throwable reason = cause instanceof ExecutionException ? cause.getCause() : cause;
+        System.err.println("Ledger transfer not confirmed durable: " + reason);
+        return new TransferOutcomeUnknownException(
+                "Transfer could not be confirmed, retry with the same idempotency key", reason);
+    }
+
+    // Pending debits are only released under the stripe lock, after the database has the debit
+    // and the account is invalidated in AccountCache. The balance is read outside the lock and
+    // used only if nothing on the stripe was released meanwhile, so it never overstates the
+    // available balance; otherwise it is read again.
+    private BalanceEngine.Outcome reservePendingDebit(int accountId, long cents) {
+        int stripe = Math.floorMod(accountId, LOCK_STRIPES);
+        while (true) {
+            long seen;
+            synchronized (locks[stripe]) {
+                seen = releases[stripe];
+            }
+            Account account = AccountCache.getInstance().getById(accountId);
+            synchronized (locks[stripe]) {
+                if (releases[stripe] != seen) {
+                    continue;
+                }
+                if (account == null) {
+                    return BalanceEngine.Outcome.ACCOUNT_NOT_FOUND;
+                }
+                long pending = pendingDebits.computeIfAbsent(accountId, id -> new AtomicLong()).get();
+                if (account.getBalanceCents() - pending < cents) {
+                    return BalanceEngine.Outcome.INSUFFICIENT_FUNDS;
+                }
+                addPendingDebit(accountId, cents);
+                return BalanceEngine.Outcome.APPLIED;
+            }
+        }
+    }
+
+    /** Called under the account's stripe lock once the database balance includes the debit. */
+    private void releasePendingDebit(int accountId, long cents) {
+        addPendingDebit(accountId, -cents);
+        releases[Math.floorMod(accountId, LOCK_STRIPES)]++;
+    }
+
+    private Object lockFor(int accountId) {
+        return locks[Math.floorMod(accountId, LOCK_STRIPES)];
+    }
+
+    private void addPendingDebit(int accountId, long cents) {
+        pendingDebits.computeIfAbsent(accountId, id -> new AtomicLong()).addAndGet(cents);
+    }
+}
@@ -0,0 +1,13 @@
+package com.banking.ledger;
+
+/**
+ * Thrown when a transfer was written to the journal but could not be
+ * confirmed durable. It may still be applied, possibly only after a restart
+ * replays the journal, so callers must not treat it as declined; retrying
+ * with the same idempotency key is safe.
+ */
+public class TransferOutcomeUnknownException extends IllegalStateException {
+    public TransferOutcomeUnknownException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,129 @@
+package com.banking.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Named {@link OperationMetrics} for DAO methods and service calls. Each one
+ * is registered on the platform MBean server as
+ * {@code com.banking:type=Operation,name=<Class.method>}, next to
+ * {@code com.banking:type=Metrics} for a text dump of all of them.
+ *
+ * With -Dbanking.metrics.dumpSeconds=N (default 0, off) the dump is also
+ * printed to stdout every N seconds.
+ */
+public class MetricsRegistry implements MetricsRegistryMBean {
+    private static final String DOMAIN = "com.banking";
+
+    private static volatile MetricsRegistry instance;
+
+    private final ConcurrentHashMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private final MBeanServer mbeanServer;
+
+    private MetricsRegistry() {
+        this.mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        register(this, DOMAIN + ":type=Metrics");
+
+        long dumpSeconds = Long.getLong("banking.metrics.dumpSeconds", 0L);
+        if (dumpSeconds > 0) {
+            Thread dumper = new Thread(() -> runDumper(dumpSeconds * 1000), "metrics-dump");
+            dumper.setDaemon(true);
+            dumper.start();
+        }
+    }
+
+    public static MetricsRegistry getInstance() {
+        if (instance == null) {
+            synchronized (MetricsRegistry.class) {
+                if (instance == null) {
+                    instance = new MetricsRegistry();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** Shorthand for {@code getInstance().get(name)}, meant for static final fields. */
+    public static OperationMetrics operation(String name) {
+        return getInstance().get(name);
+    }
+
+    public OperationMetrics get(String name) {
+        OperationMetrics metrics = operations.get(name);
+        if (metrics != null) {
+            return metrics;
+        }
+        OperationMetrics created = new OperationMetrics(name);
+        metrics = operations.putIfAbsent(name, created);
+        if (metrics != null) {
+            return metrics;
+        }
+        register(created, DOMAIN + ":type=Operation,name=" + ObjectName.quote(name));
+        return created;
+    }
+
+    /** Registers another MBean under {@code com.banking:type=<type>,name=<name>}. */
+    public void registerMBean(Object mbean, String type, String name) {
+        register(mbean, DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+    }
+
+    public Map<String, OperationMetrics> getOperations() {
+        return new TreeMap<>(operations);
+    }
+
+    @Override
+    public int getOperationCount() {
+        return operations.size();
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-48s %10s %7s %10s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "rows", "mean ms", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (OperationMetrics metrics : getOperations().values()) {
+            if (metrics.getCount() == 0) {
+                continue;
+            }
+            out.append(String.format("%-48s %10d %7d %10d %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                    metrics.getName(), metrics.getCount(), metrics.getErrorCount(), metrics.getRowCount(),
+                    metrics.getMeanMillis(), metrics.getP50Millis(), metrics.getP95Millis(),
+                    metrics.getP99Millis(), metrics.getMaxMillis()));
+        }
+        return out.toString();
+    }
+
+    @Override
+    public void resetAll() {
+        for (OperationMetrics metrics : operations.values()) {
+            metrics.reset();
+        }
+    }
+
+    private void register(Object mbean, String objectName) {
+        try {
+            ObjectName name = new ObjectName(objectName);
+            if (!mbeanServer.isRegistered(name)) {
+                mbeanServer.registerMBean(mbean, name);
+            }
+        } catch (JMException e) {
+            System.err.println("Error registering MBean " + objectName + ": " + e.getMessage());
+        }
+    }
+
+    private void runDumper(long intervalMillis) {
+        while (true) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            System.out.print(dump());
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.banking.metrics;
+
+/** JMX operations over all instrumented operations. */
+public interface MetricsRegistryMBean {
+    String dump();
+    void resetAll();
+    int getOperationCount();
+}
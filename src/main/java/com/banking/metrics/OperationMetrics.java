@@ -0,0 +1,62 @@
+package com.banking.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency, error and row counts for one DAO method or service call. Callers
+ * take {@code System.nanoTime()} on entry and call {@link #record} exactly
+ * once on exit, typically from a finally block:
+ *
+ * <pre>
+ * long start = System.nanoTime();
+ * int rows = OperationMetrics.FAILED;
+ * try {
+ *     ...
+ *     rows = accounts.size();
+ * } finally {
+ *     GET_ACCOUNTS.record(start, rows);
+ * }
+ * </pre>
+ */
+public final class OperationMetrics implements OperationMetricsMBean {
+    /** Row count that marks the call as failed. */
+    public static final int FAILED = -1;
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    /** Records a call that started at {@code startNanos}; {@code rowCount} of {@link #FAILED} counts as an error. */
+    public void record(long startNanos, int rowCount) {
+        latency.recordNanos(System.nanoTime() - startNanos);
+        if (rowCount < 0) {
+            errors.increment();
+        } else if (rowCount > 0) {
+            rows.add(rowCount);
+        }
+    }
+
+    public LatencyHistogram getLatency() { return latency; }
+
+    @Override public String getName() { return name; }
+    @Override public long getCount() { return latency.getCount(); }
+    @Override public long getErrorCount() { return errors.sum(); }
+    @Override public long getRowCount() { return rows.sum(); }
+    @Override public double getMeanMillis() { return latency.getMeanMicros() / 1000.0; }
+    @Override public double getP50Millis() { return latency.getPercentileMicros(50) / 1000.0; }
+    @Override public double getP95Millis() { return latency.getPercentileMicros(95) / 1000.0; }
+    @Override public double getP99Millis() { return latency.getPercentileMicros(99) / 1000.0; }
+    @Override public double getMaxMillis() { return latency.getMaxMicros() / 1000.0; }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        errors.reset();
+        rows.reset();
+    }
+}
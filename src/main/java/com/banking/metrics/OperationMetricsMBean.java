@@ -0,0 +1,15 @@
+package com.banking.metrics;
+
+/** JMX view of one instrumented operation; latencies are in milliseconds. */
+public interface OperationMetricsMBean {
+    String getName();
+    long getCount();
+    long getErrorCount();
+    long getRowCount();
+    double getMeanMillis();
+    double getP50Millis();
+    double getP95Millis();
+    double getP99Millis();
+    double getMaxMillis();
+    void reset();
+}
@@ -8,7 +8,8 @@ public class Account {
     private int userId;
     private String accountNumber;
     private String accountType;
-    private BigDecimal balance;
+    // Kept in cents; BigDecimal is only produced for display and JDBC binding.
+    private long balanceCents;
     private LocalDateTime createdDate;
     private boolean isActive;
 
@@ -18,7 +19,7 @@ public class Account {
         this.userId = userId;
         this.accountNumber = accountNumber;
         this.accountType = accountType;
-        this.balance = balance;
+        this.balanceCents = Money.toCents(balance);
         this.createdDate = LocalDateTime.now();
         this.isActive = true;
     }
@@ -36,8 +37,11 @@ public class Account {
     public String getAccountType() { return accountType; }
     public void setAccountType(String accountType) { this.accountType = accountType; }
 
-    public BigDecimal getBalance() { return balance; }
-    public void setBalance(BigDecimal balance) { this.balance = balance; }
+    public BigDecimal getBalance() { return Money.toBigDecimal(balanceCents); }
+    public void setBalance(BigDecimal balance) { this.balanceCents = Money.toCents(balance); }
+
+    public long getBalanceCents() { return balanceCents; }
+    public void setBalanceCents(long balanceCents) { this.balanceCents = balanceCents; }
 
     public LocalDateTime getCreatedDate() { return createdDate; }
     public void setCreatedDate(LocalDateTime createdDate) { this.createdDate = createdDate; }
@@ -0,0 +1,39 @@
+package com.banking.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Position in an account's transaction history, ordered newest first by
+ * (transaction_date, transaction_id). Can be round-tripped through an opaque
+ * token so clients can page without holding server-side state.
+ */
+public class HistoryCursor {
+    private final LocalDateTime transactionDate;
+    private final int transactionId;
+
+    public HistoryCursor(LocalDateTime transactionDate, int transactionId) {
+        this.transactionDate = transactionDate;
+        this.transactionId = transactionId;
+    }
+
+    public static HistoryCursor after(Transaction transaction) {
+        return new HistoryCursor(transaction.getTransactionDate(), transaction.getTransactionId());
+    }
+
+    public static HistoryCursor fromToken(String token) {
+        String[] parts = token.split(":");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid history cursor: " + token);
+        }
+        LocalDateTime date = LocalDateTime.ofEpochSecond(Long.parseLong(parts[0]), Integer.parseInt(parts[1]), ZoneOffset.UTC);
+        return new HistoryCursor(date, Integer.parseInt(parts[2]));
+    }
+
+    public String toToken() {
+        return transactionDate.toEpochSecond(ZoneOffset.UTC) + ":" + transactionDate.getNano() + ":" + transactionId;
+    }
+
+    public LocalDateTime getTransactionDate() { return transactionDate; }
+    public int getTransactionId() { return transactionId; }
+}
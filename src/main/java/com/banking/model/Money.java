@@ -0,0 +1,113 @@
+package com.banking.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Immutable amount of money in cents, matching the DECIMAL(15,2) columns.
+ * Arithmetic is exact and fails with {@link ArithmeticException} on overflow
+ * or when a value has more than two decimal places or more than 13 integer
+ * digits. Hot paths can use the static {@code long} helpers and avoid
+ * allocating; {@link BigDecimal} is only needed for JDBC binding and display.
+ */
+public final class Money implements Comparable<Money> {
+    public static final int SCALE = 2;
+    /** Largest value a DECIMAL(15,2) column can hold, in cents. */
+    public static final long MAX_CENTS = 999_999_999_999_999L;
+
+    public static final Money ZERO = new Money(0);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(checkRange(cents));
+    }
+
+    public static Money of(BigDecimal amount) {
+        return ofCents(toCents(amount));
+    }
+
+    /** Parses a decimal string such as "12.5" or "100.00". */
+    public static Money parse(String text) {
+        try {
+            return of(new BigDecimal(text.trim()));
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("Invalid amount: " + text);
+        }
+    }
+
+    /** Exact conversion to cents; throws if {@code amount} has more than two decimal places. */
+    public static long toCents(BigDecimal amount) {
+        return checkRange(amount.movePointRight(SCALE).longValueExact());
+    }
+
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public static long add(long a, long b) {
+        return checkRange(Math.addExact(a, b));
+    }
+
+    public static long subtract(long a, long b) {
+        return checkRange(Math.subtractExact(a, b));
+    }
+
+    public long getCents() {
+        return cents;
+    }
+
+    public Money plus(Money other) {
+        return ofCents(add(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(subtract(cents, other.cents));
+    }
+
+    public Money negate() {
+        return ofCents(-cents);
+    }
+
+    public boolean isPositive() { return cents > 0; }
+    public boolean isNegative() { return cents < 0; }
+    public boolean isZero() { return cents == 0; }
+
+    public boolean isLessThan(Money other) {
+        return cents < other.cents;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(cents);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money && ((Money) o).cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    private static long checkRange(long cents) {
+        if (cents > MAX_CENTS || cents < -MAX_CENTS) {
+            throw new ArithmeticException("Amount out of range: " + toBigDecimal(cents));
+        }
+        return cents;
+    }
+}
@@ -8,19 +8,26 @@ public class Transaction {
     private int fromAccountId;
     private int toAccountId;
     private String transactionType;
-    private BigDecimal amount;
+    // Kept in cents; BigDecimal is only produced for display and JDBC binding.
+    private long amountCents;
     private String description;
     private LocalDateTime transactionDate;
     private String status;
+    private String idempotencyKey;
 
     public Transaction() {}
 
     public Transaction(int fromAccountId, int toAccountId, String transactionType, 
                      BigDecimal amount, String description) {
+        this(fromAccountId, toAccountId, transactionType, Money.of(amount), description);
+    }
+
+    public Transaction(int fromAccountId, int toAccountId, String transactionType,
+                       Money amount, String description) {
         this.fromAccountId = fromAccountId;
         this.toAccountId = toAccountId;
         this.transactionType = transactionType;
-        this.amount = amount;
+        this.amountCents = amount.getCents();
         this.description = description;
         this.transactionDate = LocalDateTime.now();
         this.status = "PENDING";
@@ -39,8 +46,11 @@ public class Transaction {
     public String getTransactionType() { return transactionType; }
     public void setTransactionType(String transactionType) { this.transactionType = transactionType; }
 
-    public BigDecimal getAmount() { return amount; }
-    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public BigDecimal getAmount() { return Money.toBigDecimal(amountCents); }
+    public void setAmount(BigDecimal amount) { this.amountCents = Money.toCents(amount); }
+
+    public long getAmountCents() { return amountCents; }
+    public void setAmountCents(long amountCents) { this.amountCents = amountCents; }
 
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
@@ -50,4 +60,7 @@ public class Transaction {
 
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
+
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
 }
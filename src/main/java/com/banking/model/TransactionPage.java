@@ -0,0 +1,20 @@
+package com.banking.model;
+
+import java.util.List;
+
+public class TransactionPage {
+    private final List<Transaction> transactions;
+    private final HistoryCursor nextCursor;
+
+    public TransactionPage(List<Transaction> transactions, HistoryCursor nextCursor) {
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Transaction> getTransactions() { return transactions; }
+
+    /** Cursor for the next (older) page, or null if this is the last page. */
+    public HistoryCursor getNextCursor() { return nextCursor; }
+
+    public boolean hasMore() { return nextCursor != null; }
+}
@@ -0,0 +1,32 @@
+package com.banking.model;
+
+import java.math.BigDecimal;
+
+public class TransferRequest {
+    private int fromAccountId;
+    private int toAccountId;
+    private BigDecimal amount;
+    private String description;
+
+    public TransferRequest() {}
+
+    public TransferRequest(int fromAccountId, int toAccountId, BigDecimal amount, String description) {
+        this.fromAccountId = fromAccountId;
+        this.toAccountId = toAccountId;
+        this.amount = amount;
+        this.description = description;
+    }
+
+    // Getters and Setters
+    public int getFromAccountId() { return fromAccountId; }
+    public void setFromAccountId(int fromAccountId) { this.fromAccountId = fromAccountId; }
+
+    public int getToAccountId() { return toAccountId; }
+    public void setToAccountId(int toAccountId) { this.toAccountId = toAccountId; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+}
@@ -0,0 +1,38 @@
+package com.banking.model;
+
+public class TransferResult {
+    private TransferRequest request;
+    private boolean success;
+    private int transactionId;
+    private String message;
+
+    public TransferResult() {}
+
+    public TransferResult(TransferRequest request, boolean success, int transactionId, String message) {
+        this.request = request;
+        this.success = success;
+        this.transactionId = transactionId;
+        this.message = message;
+    }
+
+    public static TransferResult completed(TransferRequest request, int transactionId) {
+        return new TransferResult(request, true, transactionId, "COMPLETED");
+    }
+
+    public static TransferResult failed(TransferRequest request, String message) {
+        return new TransferResult(request, false, 0, message);
+    }
+
+    // Getters and Setters
+    public TransferRequest getRequest() { return request; }
+    public void setRequest(TransferRequest request) { this.request = request; }
+
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+
+    public int getTransactionId() { return transactionId; }
+    public void setTransactionId(int transactionId) { this.transactionId = transactionId; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
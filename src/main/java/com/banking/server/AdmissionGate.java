@@ -0,0 +1,52 @@
+package com.banking.server;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the number of requests executing at once. A request that cannot get a
+ * slot within the queue timeout is rejected instead of piling up behind the
+ * database.
+ */
+public class AdmissionGate {
+    private final int maxConcurrent;
+    private final long queueTimeoutMillis;
+    private final Semaphore permits;
+
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public AdmissionGate(int maxConcurrent, long queueTimeoutMillis) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("maxConcurrent must be positive");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    public boolean tryEnter() {
+        boolean entered = false;
+        // On the server's shedding thread its workers and queue are full; waiting would only hold that thread up.
+        if (!ServerExecutor.isShedding()) {
+            try {
+                entered = permits.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        (entered ? admitted : rejected).incrementAndGet();
+        return entered;
+    }
+
+    public void exit() {
+        permits.release();
+    }
+
+    public int getMaxConcurrent() { return maxConcurrent; }
+    public int getInFlight() { return maxConcurrent - permits.availablePermits(); }
+    public int getQueueLength() { return permits.getQueueLength(); }
+    public long getAdmittedCount() { return admitted.get(); }
+    public long getRejectedCount() { return rejected.get(); }
+}
@@ -0,0 +1,15 @@
+package com.banking.server;
+
+/** Aborts an API request with the given HTTP status and error message. */
+public class ApiException extends RuntimeException {
+    private final int status;
+
+    public ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,103 @@
+package com.banking.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Read-only view of an incoming request: path, query parameters, bearer token and JSON body. */
+public class ApiRequest {
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private final HttpExchange exchange;
+    private Map<String, String> queryParameters;
+
+    ApiRequest(HttpExchange exchange) {
+        this.exchange = exchange;
+    }
+
+    public String getMethod() {
+        return exchange.getRequestMethod();
+    }
+
+    public String getPath() {
+        return exchange.getRequestURI().getPath();
+    }
+
+    public String getQueryParameter(String name) {
+        if (queryParameters == null) {
+            queryParameters = parseQuery(exchange.getRequestURI().getRawQuery());
+        }
+        return queryParameters.get(name);
+    }
+
+    public int getIntParameter(String name, int defaultValue) {
+        String value = getQueryParameter(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Invalid value for '" + name + "'");
+        }
+    }
+
+    /** The trimmed value of a request header, or null if it is absent. */
+    public String getHeader(String name) {
+        String value = exchange.getRequestHeaders().getFirst(name);
+        return value == null ? null : value.trim();
+    }
+
+    /** The client's IP address, as seen on the connection. */
+    public String getRemoteAddress() {
+        InetSocketAddress remote = exchange.getRemoteAddress();
+        return remote.getAddress() != null ? remote.getAddress().getHostAddress() : remote.getHostString();
+    }
+
+    /** The token from an {@code Authorization: Bearer <token>} header, or null. */
+    public String getBearerToken() {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return null;
+        }
+        return header.substring(7).trim();
+    }
+
+    public Map<String, Object> readJsonObject() {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new ApiException(413, "Request body too large");
+            }
+            if (body.length == 0) {
+                throw new ApiException(400, "Request body is required");
+            }
+            return Json.parseObject(new String(body, StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "Malformed JSON: " + e.getMessage());
+        } catch (IOException e) {
+            throw new ApiException(400, "Could not read request body");
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> parameters = new HashMap<>();
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            parameters.putIfAbsent(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+}
@@ -0,0 +1,230 @@
+package com.banking.server;
+
+import com.banking.model.Account;
+import com.banking.model.HistoryCursor;
+import com.banking.model.Transaction;
+import com.banking.model.TransactionPage;
+import com.banking.model.User;
+import com.banking.service.AuthenticationService;
+import com.banking.service.BankingService;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * JSON endpoints over {@link AuthenticationService} and {@link BankingService}.
+ * Login returns a bearer token that the other endpoints require; every
+ * account-scoped call is checked against the caller's own accounts.
+ */
+public class BankingApi {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final String ACCOUNTS_PATH = "/api/accounts";
+
+    private final AuthenticationService authService;
+    private final BankingService bankingService;
+
+    public BankingApi(AuthenticationService authService, BankingService bankingService) {
+        this.authService = authService;
+        this.bankingService = bankingService;
+    }
+
+    /** POST /api/login {"username", "password"} */
+    public Object login(ApiRequest request) {
+        Map<String, Object> body = request.readJsonObject();
+        User user;
+        try {
+            user = authService.login(stringField(body, "username"), stringField(body, "password"),
+                    request.getRemoteAddress());
+        } catch (RejectedExecutionException e) {
+            throw new ApiException(503, e.getMessage());
+        }
+        if (user == null) {
+            throw new ApiException(401, "Invalid username or password");
+        }
+
+        String token = authService.startSession(user);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("token", token);
+        response.put("user", toJson(user));
+        return response;
+    }
+
+    /** POST /api/logout */
+    public Object logout(ApiRequest request) {
+        String token = request.getBearerToken();
+        boolean removed = authService.endSession(token);
+        return Collections.singletonMap("loggedOut", removed);
+    }
+
+    /**
+     * GET /api/accounts, or
+     * GET /api/accounts/{accountNumber}/transactions?limit=&amp;before=
+     */
+    public Object accounts(ApiRequest request) {
+        User user = authenticate(request);
+        String path = request.getPath();
+        if (path.equals(ACCOUNTS_PATH) || path.equals(ACCOUNTS_PATH + "/")) {
+            List<Object> accounts = new ArrayList<>();
+            for (Account account : bankingService.getUserAccounts(user.getUserId())) {
+                accounts.add(toJson(account));
+            }
+            return accounts;
+        }
+
+        String[] segments = path.substring(ACCOUNTS_PATH.length() + 1).split("/");
+        if (segments.length != 2 || !segments[1].equals("transactions")) {
+            throw new ApiException(404, "Not found");
+        }
+        Account account = ownedAccount(user, segments[0]);
+
+        int limit = request.getIntParameter("limit", DEFAULT_PAGE_SIZE);
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new ApiException(400, "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        HistoryCursor before = null;
+        String cursor = request.getQueryParameter("before");
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                before = HistoryCursor.fromToken(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new ApiException(400, "Invalid cursor");
+            }
+        }
+
+        String fields = request.getQueryParameter("fields");
+        boolean summary = "summary".equals(fields);
+        if (fields != null && !fields.isEmpty() && !summary) {
+            throw new ApiException(400, "fields must be summary");
+        }
+
+        TransactionPage page = summary
+                ? bankingService.getAccountTransactionSummaryPage(account.getAccountId(), before, limit)
+                : bankingService.getAccountTransactionPage(account.getAccountId(), before, limit);
+        List<Object> transactions = new ArrayList<>(page.getTransactions().size());
+        for (Transaction transaction : page.getTransactions()) {
+            Map<String, Object> json = toJson(transaction);
+            if (summary) {
+                json.remove("description");
+            }
+            transactions.add(json);
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("transactions", transactions);
+        response.put("next", page.hasMore() ? page.getNextCursor().toToken() : null);
+        return response;
+    }
+
+    /**
+     * POST /api/transfers {"fromAccount", "toAccount", "amount", "description"}.
+     * An optional {@code Idempotency-Key} header makes retries safe: a repeated
+     * key for the same source account returns the first result.
+     */
+    public Object transfer(ApiRequest request) {
+        User user = authenticate(request);
+        Map<String, Object> body = request.readJsonObject();
+
+        Account fromAccount = ownedAccount(user, stringField(body, "fromAccount"));
+        Account toAccount = bankingService.getAccountByNumber(stringField(body, "toAccount"));
+        if (toAccount == null) {
+            throw new ApiException(404, "Destination account not found");
+        }
+
+        Object amountField = body.get("amount");
+        BigDecimal amount;
+        try {
+            amount = amountField instanceof BigDecimal ? (BigDecimal) amountField
+                    : new BigDecimal(String.valueOf(amountField));
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Invalid amount");
+        }
+        if (amount.signum() <= 0 || amount.stripTrailingZeros().scale() > 2) {
+            throw new ApiException(400, "Amount must be positive with at most two decimal places");
+        }
+        if (fromAccount.getAccountId() == toAccount.getAccountId()) {
+            throw new ApiException(400, "Cannot transfer to the same account");
+        }
+        String idempotencyKey = request.getHeader("Idempotency-Key");
+        if (idempotencyKey != null && (idempotencyKey.isEmpty()
+                || idempotencyKey.length() > BankingService.MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            throw new ApiException(400, "Idempotency-Key must be 1 to "
+                    + BankingService.MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+
+        Object description = body.get("description");
+        boolean success = bankingService.transferFunds(fromAccount.getAccountId(), toAccount.getAccountId(),
+                amount, description == null ? "Fund transfer" : description.toString(), idempotencyKey);
+        if (!success) {
+            throw new ApiException(422, "Transfer was rejected");
+        }
+        return Collections.singletonMap("status", "COMPLETED");
+    }
+
+    public int getSessionCount() {
+        return authService.getSessionCount();
+    }
+
+    private User authenticate(ApiRequest request) {
+        String token = request.getBearerToken();
+        User user = authService.resumeSession(token);
+        if (user == null) {
+            throw new ApiException(401, "Authentication required");
+        }
+        return user;
+    }
+
+    private Account ownedAccount(User user, String accountNumber) {
+        for (Account account : bankingService.getUserAccounts(user.getUserId())) {
+            if (account.getAccountNumber().equals(accountNumber)) {
+                return account;
+            }
+        }
+        throw new ApiException(404, "Account not found");
+    }
+
+    private static String stringField(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof String) || ((String) value).isEmpty()) {
+            throw new ApiException(400, "'" + name + "' is required");
+        }
+        return (String) value;
+    }
+
+    private static Map<String, Object> toJson(User user) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("userId", user.getUserId());
+        json.put("username", user.getUsername());
+        json.put("firstName", user.getFirstName());
+        json.put("lastName", user.getLastName());
+        json.put("email", user.getEmail());
+        return json;
+    }
+
+    private static Map<String, Object> toJson(Account account) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("accountId", account.getAccountId());
+        json.put("accountNumber", account.getAccountNumber());
+        json.put("accountType", account.getAccountType());
+        json.put("balance", account.getBalance());
+        json.put("createdDate", account.getCreatedDate());
+        return json;
+    }
+
+    private static Map<String, Object> toJson(Transaction transaction) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("transactionId", transaction.getTransactionId());
+        json.put("fromAccountId", transaction.getFromAccountId());
+        json.put("toAccountId", transaction.getToAccountId());
+        json.put("type", transaction.getTransactionType());
+        json.put("amount", transaction.getAmount());
+        json.put("description", transaction.getDescription());
+        json.put("date", transaction.getTransactionDate());
+        json.put("status", transaction.getStatus());
+        return json;
+    }
+}
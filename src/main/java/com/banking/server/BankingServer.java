@@ -0,0 +1,95 @@
+package com.banking.server;
+
+import com.banking.diagnostics.FlightRecorderControl;
+import com.banking.ledger.LedgerService;
+import com.banking.service.AuthenticationService;
+import com.banking.service.BankingService;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Headless HTTP/JSON front end over the banking services, built on the JDK
+ * HTTP server. Requests run on the server's own bounded executor (see
+ * {@link ServerExecutor}) behind an {@link AdmissionGate}.
+ *
+ * Start with {@code java -cp ... com.banking.server.BankingServer} or
+ * {@code BankingApplication --server}. Tunables:
+ * banking.server.port (8080), banking.server.maxConcurrent (64),
+ * banking.server.queueTimeoutMillis (1000), banking.server.backlog (1024),
+ * banking.server.threads (2 x maxConcurrent), banking.server.queueCapacity
+ * (maxConcurrent).
+ */
+public class BankingServer {
+    private final HttpServer httpServer;
+    private final AdmissionGate gate;
+    private final BankingApi api;
+    private final ExecutorService executor;
+
+    public BankingServer(int port, int maxConcurrent, long queueTimeoutMillis, int backlog) throws IOException {
+        this.gate = new AdmissionGate(maxConcurrent, queueTimeoutMillis);
+        this.api = new BankingApi(new AuthenticationService(), new BankingService());
+        this.httpServer = HttpServer.create(new InetSocketAddress(port), backlog);
+        this.executor = ServerExecutor.create(maxConcurrent);
+        httpServer.setExecutor(executor);
+
+        httpServer.createContext("/api/login", new JsonHandler("POST", api::login, gate));
+        httpServer.createContext("/api/logout", new JsonHandler("POST", api::logout, gate));
+        httpServer.createContext("/api/accounts", new JsonHandler("GET", api::accounts, gate));
+        httpServer.createContext("/api/transfers", new JsonHandler("POST", api::transfer, gate));
+        httpServer.createContext("/api/health", new JsonHandler(
+                new HashSet<>(Arrays.asList("GET", "HEAD")), request -> health(), gate));
+    }
+
+    public void start() {
+        httpServer.start();
+    }
+
+    public void stop(int delaySeconds) {
+        httpServer.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    public AdmissionGate getGate() {
+        return gate;
+    }
+
+    private Object health() {
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("status", "UP");
+        health.put("inFlight", gate.getInFlight());
+        health.put("queued", gate.getQueueLength());
+        health.put("maxConcurrent", gate.getMaxConcurrent());
+        health.put("admitted", gate.getAdmittedCount());
+        health.put("rejected", gate.getRejectedCount());
+        health.put("sessions", api.getSessionCount());
+        return health;
+    }
+
+    public static void main(String[] args) throws IOException {
+        FlightRecorderControl.initialize();
+
+        // Replay any journaled transfers before accepting requests
+        if (LedgerService.isEnabled()) {
+            LedgerService.getInstance();
+        }
+
+        BankingServer server = new BankingServer(
+                Integer.getInteger("banking.server.port", 8080),
+                Integer.getInteger("banking.server.maxConcurrent", 64),
+                Long.getLong("banking.server.queueTimeoutMillis", 1_000L),
+                Integer.getInteger("banking.server.backlog", 1024));
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1), "server-shutdown"));
+        System.out.println("Banking API listening on port " + server.getPort());
+    }
+}
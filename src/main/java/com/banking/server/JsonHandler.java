@@ -0,0 +1,90 @@
+package com.banking.server;
+
+import com.banking.database.DatabaseBusyException;
+import com.banking.ledger.TransferOutcomeUnknownException;
+import com.banking.service.RateLimitExceededException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adapts a {@link Route} to the JDK HTTP server: admits the request through
+ * the server's {@link AdmissionGate}, checks the method and writes the
+ * route's result (or {@link ApiException}) as a JSON response. Rate limit
+ * rejections become 429 and database overload 503, both with Retry-After.
+ */
+class JsonHandler implements HttpHandler {
+    interface Route {
+        Object handle(ApiRequest request);
+    }
+
+    private final Set<String> methods;
+    private final Route route;
+    private final AdmissionGate gate;
+
+    JsonHandler(Set<String> methods, Route route, AdmissionGate gate) {
+        this.methods = methods;
+        this.route = route;
+        this.gate = gate;
+    }
+
+    JsonHandler(String method, Route route, AdmissionGate gate) {
+        this(Collections.singleton(method), route, gate);
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!methods.contains(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", String.join(", ", methods));
+                send(exchange, 405, error("Method not allowed"));
+                return;
+            }
+            if (!gate.tryEnter()) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, 503, error("Server busy, try again"));
+                return;
+            }
+            try {
+                send(exchange, 200, route.handle(new ApiRequest(exchange)));
+            } catch (ApiException e) {
+                send(exchange, e.getStatus(), error(e.getMessage()));
+            } catch (RateLimitExceededException e) {
+                long seconds = Math.max(1, (e.getRetryAfterNanos() + TimeUnit.SECONDS.toNanos(1) - 1)
+                        / TimeUnit.SECONDS.toNanos(1));
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(seconds));
+                send(exchange, 429, error(e.getMessage()));
+            } catch (DatabaseBusyException e) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, 503, error("Server busy, try again"));
+            } catch (TransferOutcomeUnknownException e) {
+                send(exchange, 500, error(e.getMessage()));
+            } catch (RuntimeException e) {
+                System.err.println("Error handling " + exchange.getRequestURI() + ": " + e.getMessage());
+                send(exchange, 500, error("Internal server error"));
+            } finally {
+                gate.exit();
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static Object error(String message) {
+        return Collections.singletonMap("error", message);
+    }
+
+    private static void send(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.banking.server;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor for the HTTP server, separate from the UI's ServiceExecutor.
+ * Workers (banking.server.threads, default twice maxConcurrent) leave room
+ * beyond the {@link AdmissionGate} limit for requests to wait out its queue
+ * timeout; behind them at most banking.server.queueCapacity (default
+ * maxConcurrent) exchanges are queued. Exchanges arriving while both are full
+ * run on a single shedding thread, where the gate turns them away with 503
+ * without doing any work.
+ */
+final class ServerExecutor {
+    private static final ThreadLocal<Boolean> SHEDDING = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private ServerExecutor() {}
+
+    static ExecutorService create(int maxConcurrent) {
+        int threads = Integer.getInteger("banking.server.threads", maxConcurrent * 2);
+        int queueCapacity = Integer.getInteger("banking.server.queueCapacity", maxConcurrent);
+
+        ThreadPoolExecutor shedder = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), daemon("banking-server-shed", new AtomicInteger(), true));
+        shedder.allowCoreThreadTimeOut(true);
+
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemon("banking-server", new AtomicInteger(), false),
+                (task, executor) -> {
+                    if (executor.isShutdown()) {
+                        shedder.shutdown();
+                    } else {
+                        shedder.execute(task);
+                    }
+                }) {
+            @Override
+            protected void terminated() {
+                shedder.shutdown();
+            }
+        };
+        workers.allowCoreThreadTimeOut(true);
+        return workers;
+    }
+
+    /** True on the shedding thread, whose exchanges must be answered without running their route. */
+    static boolean isShedding() {
+        return SHEDDING.get();
+    }
+
+    private static ThreadFactory daemon(String prefix, AtomicInteger counter, boolean shedding) {
+        return r -> {
+            Thread t = new Thread(() -> {
+                SHEDDING.set(shedding);
+                r.run();
+            }, prefix + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
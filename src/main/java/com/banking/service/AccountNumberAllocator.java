@@ -0,0 +1,192 @@
+package com.banking.service;
+
+import com.banking.dao.IdBlockDAO;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands out account numbers of the form {@code ACC} + 10 digits + a Luhn
+ * check digit, e.g. ACC00000010007. Numbers come from hi/lo blocks of
+ * banking.accounts.blockSize (default 1000) reserved in id_blocks, so the
+ * database is touched once per block rather than once per account. Within a
+ * block, allocation is a single atomic increment; the next block is reserved
+ * on the allocator's own background thread once half of the current one is
+ * used. A caller that finds the block exhausted with no reservation under way
+ * reserves on its own thread, so allocation never waits on a shared pool
+ * that the caller may itself be running on. Numbers left in a block at
+ * shutdown are skipped, never reused.
+ */
+public class AccountNumberAllocator {
+    private static final String SEQUENCE = "account_number";
+    private static final String PREFIX = "ACC";
+    private static final int DIGITS = 10;
+    private static final long MAX_VALUE = 9_999_999_999L;
+
+    private static volatile AccountNumberAllocator instance;
+
+    private final IdBlockDAO idBlockDAO;
+    private final long blockSize;
+    // Starts exhausted, so the first allocation reserves a block.
+    private final AtomicReference<Block> current = new AtomicReference<>(new Block(0, 0, 0));
+    private final AtomicReference<CompletableFuture<Block>> nextBlock = new AtomicReference<>();
+    private final ThreadPoolExecutor prefetcher;
+
+    private final AtomicLong blocksReserved = new AtomicLong();
+
+    AccountNumberAllocator(IdBlockDAO idBlockDAO, long blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.idBlockDAO = idBlockDAO;
+        this.blockSize = blockSize;
+        this.prefetcher = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "account-number-prefetch");
+            t.setDaemon(true);
+            return t;
+        });
+        this.prefetcher.allowCoreThreadTimeOut(true);
+    }
+
+    public static AccountNumberAllocator getInstance() {
+        if (instance == null) {
+            synchronized (AccountNumberAllocator.class) {
+                if (instance == null) {
+                    instance = new AccountNumberAllocator(new IdBlockDAO(),
+                            Long.getLong("banking.accounts.blockSize", 1000L));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** Returns a new, never before issued account number. */
+    public String next() {
+        while (true) {
+            Block block = current.get();
+            long value = block.next.getAndIncrement();
+            if (value < block.end) {
+                if (value == block.prefetchAt) {
+                    reserveNextBlock(true);
+                }
+                return format(value);
+            }
+            // Exhausted: every thread that gets here waits on the same reservation,
+            // and the first to swap it in makes it current.
+            CompletableFuture<Block> pending = reserveNextBlock(false);
+            Block fresh;
+            try {
+                fresh = pending.join();
+            } catch (CompletionException e) {
+                nextBlock.compareAndSet(pending, null);
+                throw new IllegalStateException("Could not reserve account numbers: "
+                        + ServiceExecutor.rootCause(e).getMessage(), e);
+            }
+            if (current.compareAndSet(block, fresh)) {
+                nextBlock.compareAndSet(pending, null);
+            }
+        }
+    }
+
+    public long getBlockSize() { return blockSize; }
+    public long getBlocksReserved() { return blocksReserved.get(); }
+
+    /** True if {@code accountNumber} has this allocator's format and a valid check digit. */
+    public static boolean isValid(String accountNumber) {
+        if (accountNumber == null || accountNumber.length() != PREFIX.length() + DIGITS + 1
+                || !accountNumber.startsWith(PREFIX)) {
+            return false;
+        }
+        long value = 0;
+        for (int i = PREFIX.length(); i < PREFIX.length() + DIGITS; i++) {
+            char c = accountNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return accountNumber.charAt(accountNumber.length() - 1) == (char) ('0' + checkDigit(value));
+    }
+
+    /**
+     * The reservation under way, or a new one: run on the prefetch thread if
+     * {@code inBackground}, otherwise on the calling thread before returning.
+     */
+    private CompletableFuture<Block> reserveNextBlock(boolean inBackground) {
+        while (true) {
+            CompletableFuture<Block> pending = nextBlock.get();
+            if (pending != null) {
+                return pending;
+            }
+            CompletableFuture<Block> reservation = new CompletableFuture<>();
+            if (nextBlock.compareAndSet(null, reservation)) {
+                if (inBackground) {
+                    prefetcher.execute(() -> reserve(reservation));
+                } else {
+                    reserve(reservation);
+                }
+                return reservation;
+            }
+        }
+    }
+
+    private void reserve(CompletableFuture<Block> reservation) {
+        try {
+            long hi = idBlockDAO.reserveBlock(SEQUENCE);
+            long start = Math.multiplyExact(hi, blockSize);
+            long end = start + blockSize;
+            if (end - 1 > MAX_VALUE) {
+                throw new IllegalStateException("Account number space exhausted");
+            }
+            blocksReserved.incrementAndGet();
+            reservation.complete(new Block(start, end, start + blockSize / 2));
+        } catch (SQLException | RuntimeException e) {
+            reservation.completeExceptionally(e);
+        }
+    }
+
+    private static String format(long value) {
+        StringBuilder number = new StringBuilder(PREFIX.length() + DIGITS + 1).append(PREFIX);
+        String digits = Long.toString(value);
+        for (int i = digits.length(); i < DIGITS; i++) {
+            number.append('0');
+        }
+        return number.append(digits).append(checkDigit(value)).toString();
+    }
+
+    // Luhn over the DIGITS-digit zero-padded value, rightmost digit doubled first.
+    private static int checkDigit(long value) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = 0; i < DIGITS; i++) {
+            int digit = (int) (value % 10);
+            value /= 10;
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+        private final long prefetchAt;
+
+        private Block(long start, long end, long prefetchAt) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+            this.prefetchAt = prefetchAt;
+        }
+    }
+}
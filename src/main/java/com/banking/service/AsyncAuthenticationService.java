@@ -0,0 +1,43 @@
+package com.banking.service;
+
+import com.banking.model.User;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Non-blocking facade over {@link AuthenticationService}, backed by the
+ * {@link ServiceExecutor}.
+ */
+public class AsyncAuthenticationService {
+    private final AuthenticationService authService;
+    private final Executor executor;
+
+    public AsyncAuthenticationService(AuthenticationService authService) {
+        this(authService, ServiceExecutor.get());
+    }
+
+    public AsyncAuthenticationService(AuthenticationService authService, Executor executor) {
+        this.authService = authService;
+        this.executor = executor;
+    }
+
+    public AuthenticationService getAuthenticationService() {
+        return authService;
+    }
+
+    public CompletableFuture<User> login(String username, String password) {
+        return CompletableFuture.supplyAsync(() -> authService.login(username, password), executor);
+    }
+
+    public CompletableFuture<Boolean> register(User user) {
+        return CompletableFuture.supplyAsync(() -> authService.register(user), executor);
+    }
+
+    public CompletableFuture<Boolean> isUsernameAvailable(String username) {
+        return CompletableFuture.supplyAsync(() -> authService.isUsernameAvailable(username), executor);
+    }
+
+    public CompletableFuture<Boolean> isEmailAvailable(String email) {
+        return CompletableFuture.supplyAsync(() -> authService.isEmailAvailable(email), executor);
+    }
+}
@@ -0,0 +1,80 @@
+package com.banking.service;
+
+import com.banking.model.Account;
+import com.banking.model.HistoryCursor;
+import com.banking.model.Transaction;
+import com.banking.model.TransactionPage;
+import com.banking.model.TransferRequest;
+import com.banking.model.TransferResult;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Non-blocking facade over {@link BankingService}. Every call runs on the
+ * {@link ServiceExecutor}; callers on the EDT should hop back with
+ * {@code SwingUtilities::invokeLater} before touching components.
+ */
+public class AsyncBankingService {
+    private final BankingService bankingService;
+    private final Executor executor;
+
+    public AsyncBankingService(BankingService bankingService) {
+        this(bankingService, ServiceExecutor.get());
+    }
+
+    public AsyncBankingService(BankingService bankingService, Executor executor) {
+        this.bankingService = bankingService;
+        this.executor = executor;
+    }
+
+    public BankingService getBankingService() {
+        return bankingService;
+    }
+
+    public CompletableFuture<List<Account>> getUserAccounts(int userId) {
+        return CompletableFuture.supplyAsync(() -> bankingService.getUserAccounts(userId), executor);
+    }
+
+    public CompletableFuture<Account> getAccountByNumber(String accountNumber) {
+        return CompletableFuture.supplyAsync(() -> bankingService.getAccountByNumber(accountNumber), executor);
+    }
+
+    public CompletableFuture<BigDecimal> getAvailableBalance(Account account) {
+        return CompletableFuture.supplyAsync(() -> bankingService.getAvailableBalance(account), executor);
+    }
+
+    public CompletableFuture<Boolean> transferFunds(int fromAccountId, int toAccountId, BigDecimal amount, String description) {
+        return CompletableFuture.supplyAsync(
+                () -> bankingService.transferFunds(fromAccountId, toAccountId, amount, description), executor);
+    }
+
+    public CompletableFuture<Boolean> transferFunds(int fromAccountId, int toAccountId, BigDecimal amount,
+                                                    String description, String idempotencyKey) {
+        return CompletableFuture.supplyAsync(() -> bankingService.transferFunds(
+                fromAccountId, toAccountId, amount, description, idempotencyKey), executor);
+    }
+
+    public CompletableFuture<List<TransferResult>> transferBatch(List<TransferRequest> requests) {
+        return CompletableFuture.supplyAsync(() -> bankingService.transferBatch(requests), executor);
+    }
+
+    public CompletableFuture<List<Transaction>> getAccountTransactions(int accountId) {
+        return CompletableFuture.supplyAsync(() -> bankingService.getAccountTransactions(accountId), executor);
+    }
+
+    public CompletableFuture<List<Transaction>> getAccountTransactionsSince(int accountId, int afterTransactionId, int limit) {
+        return CompletableFuture.supplyAsync(
+                () -> bankingService.getAccountTransactionsSince(accountId, afterTransactionId, limit), executor);
+    }
+
+    public CompletableFuture<TransactionPage> getAccountTransactionPage(int accountId, HistoryCursor before, int pageSize) {
+        return CompletableFuture.supplyAsync(
+                () -> bankingService.getAccountTransactionPage(accountId, before, pageSize), executor);
+    }
+
+    public CompletableFuture<Boolean> createAccount(int userId, String accountType) {
+        return CompletableFuture.supplyAsync(() -> bankingService.createAccount(userId, accountType), executor);
+    }
+}
@@ -1,22 +1,104 @@
 package com.banking.service;
 
 import com.banking.dao.UserDAO;
+import com.banking.diagnostics.LoginEvent;
+import com.banking.metrics.MetricsRegistry;
+import com.banking.metrics.OperationMetrics;
 import com.banking.model.User;
+import java.util.Locale;
+import java.util.concurrent.RejectedExecutionException;
 
 public class AuthenticationService {
+    private static final OperationMetrics LOGIN = MetricsRegistry.operation("AuthenticationService.login");
+    // Keyed by source and username, so one client cannot lock a user out everywhere by failing on purpose.
+    private static final RateLimiter<String> LOGIN_ATTEMPTS = RateLimiter.fromProperties("login", 1, 5);
+    private static final String LOCAL_SOURCE = "local";
+
     private UserDAO userDAO;
+    private PasswordHasher passwordHasher;
+    private RegistrationIndex registrationIndex;
+    private SessionManager sessionManager;
 
     public AuthenticationService() {
         this.userDAO = new UserDAO();
+        this.passwordHasher = PasswordHasher.getInstance();
+        this.registrationIndex = RegistrationIndex.getInstance();
+        this.sessionManager = SessionManager.getInstance();
     }
 
+    /** Login from this process (the desktop client); see {@link #login(String, String, String)}. */
     public User login(String username, String password) {
+        return login(username, password, LOCAL_SOURCE);
+    }
+
+    /**
+     * Returns the user if the password matches, otherwise null. Throws
+     * RejectedExecutionException when the password hashing pool is saturated
+     * and RateLimitExceededException after too many failed attempts for the
+     * username from {@code source}, the client's address. A successful login
+     * does not count against the limit.
+     */
+    public User login(String username, String password, String source) {
         if (username == null || username.trim().isEmpty() || 
             password == null || password.trim().isEmpty()) {
             return null;
         }
         
-        return userDAO.loginUser(username.trim(), password);
+        String attemptKey = source + "/" + username.trim().toLowerCase(Locale.ROOT);
+        long wait = LOGIN_ATTEMPTS.tryAcquire(attemptKey);
+        if (wait > 0) {
+            throw new RateLimitExceededException("Too many login attempts, try again later", wait);
+        }
+
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
+        LoginEvent event = new LoginEvent();
+        event.begin();
+        try {
+            User user = userDAO.findCredentials(username.trim());
+            if (user == null) {
+                rows = 0;
+                return null;
+            }
+            String stored = user.getPassword();
+            user.setPassword(null);
+            if (!passwordHasher.verify(password, stored)) {
+                rows = 0;
+                return null;
+            }
+            if (passwordHasher.needsRehash(stored)) {
+                rehash(user.getUserId(), password, stored);
+            }
+            rows = 1;
+            LOGIN_ATTEMPTS.refund(attemptKey);
+            return user;
+        } finally {
+            LOGIN.record(start, rows);
+            event.end();
+            if (event.shouldCommit()) {
+                event.username = username.trim();
+                event.success = rows > 0;
+                event.commit();
+            }
+        }
+    }
+
+    /** Starts a session for a user returned by {@link #login} and returns its token. */
+    public String startSession(User user) {
+        return sessionManager.create(user);
+    }
+
+    /** Re-authenticates a session token without touching the database; null if it is unknown or expired. */
+    public User resumeSession(String token) {
+        return sessionManager.validate(token);
+    }
+
+    public boolean endSession(String token) {
+        return sessionManager.invalidate(token);
+    }
+
+    public int getSessionCount() {
+        return sessionManager.size();
     }
 
     public boolean register(User user) {
@@ -24,16 +106,64 @@ public class AuthenticationService {
             return false;
         }
 
-        // Check if username or email already exists
-        if (userDAO.isUsernameExists(user.getUsername())) {
+        // Check if username or email already exists; one query, and none if
+        // the index has never seen either of them
+        boolean checked = registrationIndex.mightHaveUsername(user.getUsername())
+                || registrationIndex.mightHaveEmail(user.getEmail());
+        if (checked) {
+            rejectTaken(userDAO.findTakenIdentifiers(user.getUsername(), user.getEmail()));
+        }
+
+        user.setPassword(passwordHasher.hash(user.getPassword()));
+        registrationIndex.add(user.getUsername(), user.getEmail());
+        boolean registered = userDAO.registerUser(user);
+        if (!registered && !checked) {
+            // Registered elsewhere since the index was loaded; report which one.
+            rejectTaken(userDAO.findTakenIdentifiers(user.getUsername(), user.getEmail()));
+        }
+        return registered;
+    }
+
+    private void rejectTaken(int taken) {
+        if ((taken & UserDAO.USERNAME_TAKEN) != 0) {
             throw new IllegalArgumentException("Username already exists");
         }
-        
-        if (userDAO.isEmailExists(user.getEmail())) {
+        if ((taken & UserDAO.EMAIL_TAKEN) != 0) {
             throw new IllegalArgumentException("Email already exists");
         }
+    }
 
-        return userDAO.registerUser(user);
+    /** For live checks while a user types: usually answered from memory. */
+    public boolean isUsernameAvailable(String username) {
+        if (username == null || username.trim().isEmpty()) {
+            return false;
+        }
+        return !registrationIndex.mightHaveUsername(username) || !userDAO.isUsernameExists(username.trim());
+    }
+
+    public boolean isEmailAvailable(String email) {
+        if (email == null || email.trim().isEmpty()) {
+            return false;
+        }
+        return !registrationIndex.mightHaveEmail(email) || !userDAO.isEmailExists(email.trim());
+    }
+
+    /**
+     * Replaces a plaintext or outdated stored password with a fresh hash in the
+     * background, so the login that triggers it does not pay for a second hash.
+     * If it fails or the pool is busy, the next login tries again.
+     */
+    private void rehash(int userId, String password, String stored) {
+        try {
+            passwordHasher.hashAsync(password)
+                    .thenAccept(hash -> userDAO.updatePassword(userId, stored, hash))
+                    .exceptionally(e -> {
+                        System.err.println("Error rehashing password: " + ServiceExecutor.rootCause(e).getMessage());
+                        return null;
+                    });
+        } catch (RejectedExecutionException e) {
+            // Left for a later login.
+        }
     }
 
     private boolean isValidUser(User user) {
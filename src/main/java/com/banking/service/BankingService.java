@@ -1,91 +1,467 @@
 package com.banking.service;
 
+import com.banking.cache.AccountCache;
+import com.banking.database.DatabaseBusyException;
+import com.banking.database.RetryPolicy;
 import com.banking.dao.AccountDAO;
 import com.banking.dao.TransactionDAO;
+import com.banking.dao.TransferDAO;
+import com.banking.engine.BalanceEngine;
+import com.banking.diagnostics.TransferEvent;
+import com.banking.event.BalanceChange;
+import com.banking.event.BalanceEventBus;
+import com.banking.ledger.LedgerService;
+import com.banking.ledger.TransferOutcomeUnknownException;
+import com.banking.metrics.MetricsRegistry;
+import com.banking.metrics.OperationMetrics;
 import com.banking.model.Account;
+import com.banking.model.HistoryCursor;
+import com.banking.model.Money;
 import com.banking.model.Transaction;
+import com.banking.model.TransactionPage;
+import com.banking.model.TransferRequest;
+import com.banking.model.TransferResult;
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 public class BankingService {
+    public static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+
+    // Shared by every instance, since the UI and the API server each create their own.
+    private static final IdempotencyIndex RECENT_KEYS = new IdempotencyIndex();
+    private static final OperationMetrics TRANSFER = MetricsRegistry.operation("BankingService.transferFunds");
+    // Per source account and per owning user, so one user cannot get around the limit by spreading over accounts.
+    private static final RateLimiter<Integer> ACCOUNT_TRANSFERS = RateLimiter.fromProperties("accountTransfers", 5, 10);
+    private static final RateLimiter<Integer> USER_TRANSFERS = RateLimiter.fromProperties("userTransfers", 10, 20);
+    private static final String TOO_MANY_TRANSFERS = "Too many transfers, try again later";
+    private static final OperationMetrics TRANSFER_BATCH = MetricsRegistry.operation("BankingService.transferBatch");
+
     private AccountDAO accountDAO;
     private TransactionDAO transactionDAO;
+    private TransferDAO transferDAO;
+    private AccountCache accountCache;
+    private AccountNumberAllocator accountNumbers;
 
     public BankingService() {
         this.accountDAO = new AccountDAO();
         this.transactionDAO = new TransactionDAO();
+        HotAccountService.retireUnconfigured();
+        this.transferDAO = HotAccountService.isEnabled()
+                ? new TransferDAO(HotAccountService.getInstance()::slotFor) : new TransferDAO();
+        this.accountCache = AccountCache.getInstance();
+        this.accountNumbers = AccountNumberAllocator.getInstance();
     }
 
     public List<Account> getUserAccounts(int userId) {
-        return accountDAO.getAccountsByUserId(userId);
+        return accountCache.getByUserId(userId);
     }
 
     public Account getAccountByNumber(String accountNumber) {
-        return accountDAO.getAccountByAccountNumber(accountNumber);
+        return accountCache.getByNumber(accountNumber);
+    }
+
+    public AccountCache getAccountCache() {
+        return accountCache;
     }
 
     public boolean transferFunds(int fromAccountId, int toAccountId, BigDecimal amount, String description) {
+        return transferFunds(fromAccountId, toAccountId, amount, description, null);
+    }
+
+    public boolean transferFunds(int fromAccountId, int toAccountId, BigDecimal amount, String description,
+                                 String idempotencyKey) {
+        if (amount == null) {
+            return false;
+        }
+        Money money;
+        try {
+            money = Money.of(amount);
+        } catch (ArithmeticException e) {
+            return false;
+        }
+        return transferFunds(fromAccountId, toAccountId, money, description, idempotencyKey);
+    }
+
+    public boolean transferFunds(int fromAccountId, int toAccountId, Money amount, String description) {
+        return transferFunds(fromAccountId, toAccountId, amount, description, null);
+    }
+
+    /**
+     * Transfers {@code amount} between two accounts. When an idempotency key
+     * is given (at most {@link #MAX_IDEMPOTENCY_KEY_LENGTH} characters, scoped
+     * to the source account), a repeated submission with the same key returns
+     * the result of the first one without moving money again.
+     *
+     * Throws RateLimitExceededException when the source account or its owner
+     * has used up its transfer rate (a repeated key is answered, not limited),
+     * and DatabaseBusyException when no database connection could be had or
+     * the transfer kept losing lock conflicts. With the ledger on, throws
+     * TransferOutcomeUnknownException when the journal could not confirm the
+     * transfer; a retry with the same key then gets the same answer until the
+     * key expires.
+     */
+    public boolean transferFunds(int fromAccountId, int toAccountId, Money amount, String description,
+                                 String idempotencyKey) {
+        if (fromAccountId == toAccountId || amount == null || !amount.isPositive()) {
+            return false;
+        }
+        if (idempotencyKey == null) {
+            checkTransferRate(fromAccountId);
+            return executeTransfer(fromAccountId, toAccountId, amount, description, null) > 0;
+        }
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return false;
+        }
+
+        String scopedKey = fromAccountId + ":" + idempotencyKey;
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        CompletableFuture<Boolean> original = RECENT_KEYS.claim(scopedKey, result);
+        if (original != null) {
+            try {
+                return original.join();
+            } catch (CompletionException e) {
+                // The first attempt's own failure: unknown outcome, busy database or rate limit.
+                throw (RuntimeException) e.getCause();
+            }
+        }
+
+        int rows = OperationMetrics.FAILED;
+        boolean outcomeKnown = true;
         try {
-            // Get accounts
-            Account fromAccount = accountDAO.getAccountsByUserId(0).stream()
-                .filter(acc -> acc.getAccountId() == fromAccountId)
-                .findFirst()
-                .orElse(null);
-            
-            Account toAccount = accountDAO.getAccountsByUserId(0).stream()
-                .filter(acc -> acc.getAccountId() == toAccountId)
-                .findFirst()
-                .orElse(null);
+            long wait = transferWait(fromAccountId);
+            if (wait > 0) {
+                // Only new work is limited; the key may belong to a transfer older than the in-memory window.
+                Transaction stored = transactionDAO.getTransactionByIdempotencyKey(scopedKey);
+                if (stored == null) {
+                    throw new RateLimitExceededException(TOO_MANY_TRANSFERS, wait);
+                }
+                rows = "COMPLETED".equals(stored.getStatus()) ? 1 : 0;
+                return rows > 0;
+            }
+            rows = executeTransfer(fromAccountId, toAccountId, amount, description, scopedKey);
+        } catch (TransferOutcomeUnknownException e) {
+            // The journal may still apply it, so the key stays claimed.
+            outcomeKnown = false;
+            result.completeExceptionally(e);
+            throw e;
+        } catch (RuntimeException e) {
+            // Duplicates waiting on this attempt get the same exception, not a decline.
+            result.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Without an outcome nothing was committed, so a retry must be allowed to run.
+            if (rows < 0 && outcomeKnown) {
+                RECENT_KEYS.release(scopedKey);
+            }
+            result.complete(rows > 0);
+        }
+        return rows > 0;
+    }
+
+    private void checkTransferRate(int fromAccountId) {
+        long wait = transferWait(fromAccountId);
+        if (wait > 0) {
+            throw new RateLimitExceededException(TOO_MANY_TRANSFERS, wait);
+        }
+    }
+
+    private long transferWait(int fromAccountId) {
+        return transferWait(fromAccountId, 1);
+    }
 
-            if (fromAccount == null || toAccount == null) {
-                return false;
+    /**
+     * Takes {@code transfers} tokens for the account and its owner; returns 0, or nanoseconds to wait.
+     * Takes neither if either is refused.
+     */
+    private long transferWait(int fromAccountId, int transfers) {
+        long wait = ACCOUNT_TRANSFERS.tryAcquire(fromAccountId, transfers);
+        if (wait == 0) {
+            Account account = accountCache.getById(fromAccountId);
+            if (account != null) {
+                wait = USER_TRANSFERS.tryAcquire(account.getUserId(), transfers);
+                if (wait > 0) {
+                    ACCOUNT_TRANSFERS.refund(fromAccountId, transfers);
+                }
             }
+        }
+        return wait;
+    }
 
-            // Check sufficient balance
-            if (fromAccount.getBalance().compareTo(amount) < 0) {
-                return false;
+    /** Returns 1 if the transfer completed, 0 if it was declined, or OperationMetrics.FAILED. */
+    private int executeTransfer(int fromAccountId, int toAccountId, Money amount, String description,
+                                String idempotencyKey) {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
+        TransferEvent event = new TransferEvent();
+        event.begin();
+        try {
+            if (LedgerService.isEnabled()) {
+                // A key older than the in-memory window is caught by the unique column when the entry
+                // is applied, and the applier skips it. Only ledger transfers that completed store
+                // their key, so acknowledging the repeat is the right answer.
+                boolean submitted = LedgerService.getInstance().submitTransfer(fromAccountId, toAccountId,
+                        amount.getCents(), description, idempotencyKey);
+                if (!submitted && idempotencyKey != null) {
+                    // Declined now, e.g. for funds the original already moved; report the original instead.
+                    Transaction stored = transactionDAO.getTransactionByIdempotencyKey(idempotencyKey);
+                    submitted = stored != null && "COMPLETED".equals(stored.getStatus());
+                }
+                rows = submitted ? 1 : 0;
+                return rows;
             }
 
-            // Create transaction
             Transaction transaction = new Transaction(fromAccountId, toAccountId, "TRANSFER", amount, description);
-            boolean transactionCreated = transactionDAO.createTransaction(transaction);
+            transaction.setIdempotencyKey(idempotencyKey);
+            List<BalanceChange> balancesAfter = new ArrayList<>(2);
+            TransferDAO.Outcome outcome = transferDAO.transfer(transaction, balancesAfter);
+            if (outcome == TransferDAO.Outcome.DUPLICATE) {
+                // The key outlived the in-memory window; report what the stored transaction did.
+                Transaction stored = transactionDAO.getTransactionByIdempotencyKey(idempotencyKey);
+                rows = stored != null && "COMPLETED".equals(stored.getStatus()) ? 1 : 0;
+                return rows;
+            }
+            if (outcome != TransferDAO.Outcome.COMPLETED) {
+                rows = 0;
+                return rows;
+            }
+            rows = 1;
+            BalanceEventBus.getInstance().publishAll(balancesAfter);
+            return rows;
+        } catch (DatabaseBusyException | TransferOutcomeUnknownException e) {
+            throw e;
+        } catch (SQLException e) {
+            if (RetryPolicy.isRetryable(e)) {
+                // Still contended after the retries; nothing was committed, so the caller may try again.
+                throw new DatabaseBusyException("Transfer could not get its locks, try again", e);
+            }
+            System.err.println("Error in transfer: " + e.getMessage());
+            return rows;
+        } catch (Exception e) {
+            System.err.println("Error in transfer: " + e.getMessage());
+            return rows;
+        } finally {
+            TRANSFER.record(start, rows);
+            accountCache.invalidate(fromAccountId);
+            accountCache.invalidate(toAccountId);
+            event.end();
+            if (event.shouldCommit()) {
+                event.fromAccountId = fromAccountId;
+                event.toAccountId = toAccountId;
+                event.amountCents = amount.getCents();
+                event.outcome = rows < 0 ? "FAILED" : rows == 0 ? "DECLINED" : "COMPLETED";
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Executes a payroll-style batch of transfers out of a single source account.
+     * The batch is validated in memory, then written in one database transaction
+     * (one aggregate debit, batched credits and inserts). Returns one result per
+     * request, in request order. If the source cannot cover the aggregate of the
+     * valid items, none of them are applied.
+     *
+     * Each valid item counts as one transfer against the source account's and
+     * its owner's rate; throws RateLimitExceededException if either is used up.
+     */
+    public List<TransferResult> transferBatch(List<TransferRequest> requests) {
+        long start = System.nanoTime();
+        int rows = OperationMetrics.FAILED;
+        try {
+            List<TransferResult> results = runBatch(requests);
+            rows = 0;
+            for (TransferResult result : results) {
+                if (result.isSuccess()) {
+                    rows++;
+                }
+            }
+            return results;
+        } finally {
+            TRANSFER_BATCH.record(start, rows);
+        }
+    }
+
+    private List<TransferResult> runBatch(List<TransferRequest> requests) {
+        List<TransferResult> results = new ArrayList<>(requests.size());
+        if (requests.isEmpty()) {
+            return results;
+        }
+
+        int fromAccountId = requests.get(0).getFromAccountId();
+        List<Transaction> transactions = new ArrayList<>(requests.size());
+        List<Integer> positions = new ArrayList<>(requests.size());
+
+        for (TransferRequest request : requests) {
+            String error = validateBatchItem(request, fromAccountId);
+            if (error != null) {
+                results.add(TransferResult.failed(request, error));
+                continue;
+            }
+            positions.add(results.size());
+            results.add(null);
+            transactions.add(new Transaction(fromAccountId, request.getToAccountId(), "TRANSFER",
+                    request.getAmount(), request.getDescription()));
+        }
+
+        if (transactions.isEmpty()) {
+            return results;
+        }
+        long wait = transferWait(fromAccountId, transactions.size());
+        if (wait > 0) {
+            throw new RateLimitExceededException(TOO_MANY_TRANSFERS, wait);
+        }
+
+        // With the ledger on, the batch total is reserved through it first, since the
+        // database balance does not include journaled transfers that are not applied yet.
+        LedgerService ledger = LedgerService.isEnabled() ? LedgerService.getInstance() : null;
+        BalanceEngine engine = ledger != null ? ledger.getBalanceEngine() : null;
+        long reservedCents = 0;
+        if (ledger != null) {
+            for (Transaction transaction : transactions) {
+                reservedCents = Money.add(reservedCents, transaction.getAmountCents());
+            }
+            BalanceEngine.Outcome reserved = ledger.reserveDebit(fromAccountId, reservedCents);
+            if (reserved != BalanceEngine.Outcome.APPLIED) {
+                String error = reserved == BalanceEngine.Outcome.INSUFFICIENT_FUNDS
+                        ? "Insufficient balance for batch total" : "Source account not found";
+                for (int i = 0; i < transactions.size(); i++) {
+                    int position = positions.get(i);
+                    results.set(position, TransferResult.failed(requests.get(position), error));
+                }
+                return results;
+            }
+        }
 
-            if (!transactionCreated) {
-                return false;
+        String batchError;
+        List<BalanceChange> balancesAfter = new ArrayList<>();
+        try {
+            TransferDAO.Outcome outcome = transferDAO.transferBatch(fromAccountId, transactions, balancesAfter);
+            batchError = outcome == TransferDAO.Outcome.INSUFFICIENT_FUNDS ? "Insufficient balance for batch total"
+                    : outcome == TransferDAO.Outcome.ACCOUNT_NOT_FOUND ? "Source account not found"
+                    : null;
+        } catch (Exception e) {
+            System.err.println("Error in batch transfer: " + e.getMessage());
+            batchError = "Batch failed: " + e.getMessage();
+        } finally {
+            accountCache.invalidate(fromAccountId);
+            for (Transaction transaction : transactions) {
+                accountCache.invalidate(transaction.getToAccountId());
             }
+        }
 
-            // Update balances
-            BigDecimal newFromBalance = fromAccount.getBalance().subtract(amount);
-            BigDecimal newToBalance = toAccount.getBalance().add(amount);
+        if (ledger != null) {
+            long committedCents = 0;
+            for (Transaction transaction : transactions) {
+                if (batchError == null && "COMPLETED".equals(transaction.getStatus())) {
+                    long cents = transaction.getAmountCents();
+                    if (engine != null) {
+                        engine.adjust(transaction.getToAccountId(), cents);
+                    }
+                    committedCents += cents;
+                }
+            }
+            ledger.settleDebit(fromAccountId, reservedCents, committedCents);
+        }
 
-            boolean fromUpdated = accountDAO.updateAccountBalance(fromAccountId, newFromBalance.doubleValue());
-            boolean toUpdated = accountDAO.updateAccountBalance(toAccountId, newToBalance.doubleValue());
+        if (batchError == null) {
+            BalanceEventBus.getInstance().publishAll(balancesAfter);
+        }
 
-            if (fromUpdated && toUpdated) {
-                transactionDAO.updateTransactionStatus(transaction.getTransactionId(), "COMPLETED");
-                return true;
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            int position = positions.get(i);
+            TransferRequest request = requests.get(position);
+            if (batchError != null) {
+                results.set(position, TransferResult.failed(request, batchError));
+            } else if ("COMPLETED".equals(transaction.getStatus())) {
+                results.set(position, TransferResult.completed(request, transaction.getTransactionId()));
             } else {
-                transactionDAO.updateTransactionStatus(transaction.getTransactionId(), "FAILED");
-                return false;
+                results.set(position, TransferResult.failed(request, "Destination account not found"));
             }
+        }
+        return results;
+    }
 
-        } catch (Exception e) {
-            System.err.println("Error in transfer: " + e.getMessage());
-            return false;
+    /**
+     * Balance available for new transfers: the in-memory engine balance when
+     * the engine is enabled (it includes journaled transfers the database has
+     * not applied yet), otherwise the account's stored balance.
+     */
+    public BigDecimal getAvailableBalance(Account account) {
+        BalanceEngine engine = getBalanceEngine();
+        if (engine == null) {
+            return account.getBalance();
+        }
+        BigDecimal balance = engine.getBalance(account.getAccountId());
+        return balance != null ? balance : account.getBalance();
+    }
+
+    private BalanceEngine getBalanceEngine() {
+        return BalanceEngine.isEnabled() ? LedgerService.getInstance().getBalanceEngine() : null;
+    }
+
+    private String validateBatchItem(TransferRequest request, int fromAccountId) {
+        if (request.getFromAccountId() != fromAccountId) {
+            return "Batch items must share one source account";
+        }
+        if (request.getToAccountId() == fromAccountId) {
+            return "Cannot transfer to the source account";
+        }
+        BigDecimal amount = request.getAmount();
+        if (amount == null || amount.signum() <= 0) {
+            return "Invalid amount";
         }
+        try {
+            Money.toCents(amount);
+        } catch (ArithmeticException e) {
+            return "Invalid amount";
+        }
+        return null;
     }
 
+    /** Recent transactions for display; descriptions are cut to what fits a table cell. */
     public List<Transaction> getAccountTransactions(int accountId) {
-        return transactionDAO.getTransactionsByAccountId(accountId);
+        return transactionDAO.getTransactionsByAccountId(accountId, TransactionDAO.DASHBOARD);
     }
 
-    public boolean createAccount(int userId, String accountType) {
-        String accountNumber = generateAccountNumber();
-        Account account = new Account(userId, accountNumber, accountType, BigDecimal.ZERO);
-        return accountDAO.createAccount(account);
+    /** Like {@link #getAccountTransactions(int)}, limited to transactions newer than {@code afterTransactionId}. */
+    public List<Transaction> getAccountTransactionsSince(int accountId, int afterTransactionId, int limit) {
+        return transactionDAO.getTransactionsSince(accountId, afterTransactionId, limit, TransactionDAO.DASHBOARD);
+    }
+
+    public TransactionPage getAccountTransactionPage(int accountId, HistoryCursor before, int pageSize) {
+        return transactionDAO.getTransactionPage(accountId, before, pageSize);
+    }
+
+    /** A history page without descriptions, for clients that only list amounts and dates. */
+    public TransactionPage getAccountTransactionSummaryPage(int accountId, HistoryCursor before, int pageSize) {
+        return transactionDAO.getTransactionPage(accountId, before, pageSize, TransactionDAO.SUMMARY);
+    }
+
+    /**
+     * Streams the full history of an account to {@code consumer} without
+     * loading it into memory, e.g. for statement exports.
+     */
+    public int exportAccountTransactions(int accountId, Consumer<Transaction> consumer) throws SQLException {
+        return transactionDAO.streamTransactionsByAccountId(accountId, consumer);
     }
 
-    private String generateAccountNumber() {
-        return "ACC" + System.currentTimeMillis();
+    public boolean createAccount(int userId, String accountType) {
+        String accountNumber;
+        try {
+            accountNumber = accountNumbers.next();
+        } catch (IllegalStateException e) {
+            System.err.println("Error creating account: " + e.getMessage());
+            return false;
+        }
+        Account account = new Account(userId, accountNumber, accountType, BigDecimal.ZERO);
+        boolean created = accountDAO.createAccount(account);
+        accountCache.invalidateUser(userId);
+        return created;
     }
 }
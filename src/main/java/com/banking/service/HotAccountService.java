@@ -0,0 +1,179 @@
+package com.banking.service;
+
+import com.banking.cache.AccountCache;
+import com.banking.dao.AccountDAO;
+import com.banking.dao.SubBalanceDAO;
+import com.banking.model.Account;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in "hot account" mode for payees that receive most of the inbound
+ * transfers. Credits to a hot account are spread over N slot rows (see
+ * {@link SubBalanceDAO}) and a background thread folds them back into the
+ * account balance every banking.hot.foldMillis (default 500). Debits from a
+ * hot account fold first, so they always see the full total; plain balance
+ * reads can lag by up to one fold interval.
+ *
+ * Enable with -Dbanking.hot.accounts=ACC006,ACC007 (account numbers) and
+ * optionally -Dbanking.hot.slots (default: number of processors). Accounts
+ * that have slots but are no longer listed, or all of them when the property
+ * is unset, are folded one last time and lose their slots at startup (see
+ * {@link #retireUnconfigured()}), so their credits count again.
+ */
+public class HotAccountService {
+    private static volatile HotAccountService instance;
+    private static volatile boolean retired;
+
+    private final SubBalanceDAO subBalanceDAO;
+    private final long foldMillis;
+    private final Thread folder;
+    private volatile Map<Integer, Integer> hotAccounts = Collections.emptyMap();
+    private volatile boolean running = true;
+
+    private final AtomicLong folds = new AtomicLong();
+    private final AtomicLong foldFailures = new AtomicLong();
+
+    private HotAccountService() throws SQLException {
+        this.subBalanceDAO = new SubBalanceDAO();
+        this.foldMillis = Long.getLong("banking.hot.foldMillis", 500L);
+
+        int slots = Integer.getInteger("banking.hot.slots", Runtime.getRuntime().availableProcessors());
+        AccountDAO accountDAO = new AccountDAO();
+        Set<Integer> configured = new HashSet<>();
+        for (String accountNumber : System.getProperty("banking.hot.accounts", "").split(",")) {
+            if (accountNumber.trim().isEmpty()) {
+                continue;
+            }
+            Account account = accountDAO.getAccountByAccountNumber(accountNumber.trim());
+            if (account == null) {
+                System.err.println("Hot account not found: " + accountNumber.trim());
+                continue;
+            }
+            subBalanceDAO.enableHotAccount(account.getAccountId(), slots);
+            configured.add(account.getAccountId());
+        }
+        retire(subBalanceDAO, configured);
+        refresh();
+
+        this.folder = new Thread(this::runFolder, "hot-account-folder");
+        folder.setDaemon(true);
+        folder.start();
+    }
+
+    public static boolean isEnabled() {
+        return !System.getProperty("banking.hot.accounts", "").trim().isEmpty();
+    }
+
+    public static HotAccountService getInstance() {
+        if (instance == null) {
+            synchronized (HotAccountService.class) {
+                if (instance == null) {
+                    try {
+                        instance = new HotAccountService();
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("Failed to load hot accounts: " + e.getMessage(), e);
+                    }
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Folds and removes the slots of accounts no longer configured as hot.
+     * With hot mode on this happens when the service starts; with it off, the
+     * first call does it for every account that still has slots. Callers run
+     * this before moving money, since debits only see slot credits of
+     * accounts the service knows to be hot.
+     */
+    public static void retireUnconfigured() {
+        if (isEnabled()) {
+            getInstance();
+            return;
+        }
+        if (retired) {
+            return;
+        }
+        synchronized (HotAccountService.class) {
+            if (!retired) {
+                try {
+                    retire(new SubBalanceDAO(), Collections.emptySet());
+                    retired = true;
+                } catch (SQLException e) {
+                    System.err.println("Error retiring hot accounts: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void retire(SubBalanceDAO subBalanceDAO, Set<Integer> configured) throws SQLException {
+        for (Integer accountId : subBalanceDAO.getHotAccounts().keySet()) {
+            if (configured.contains(accountId)) {
+                continue;
+            }
+            BigDecimal folded = subBalanceDAO.disableHotAccount(accountId);
+            if (folded.signum() != 0) {
+                AccountCache.getInstance().invalidate(accountId);
+            }
+            System.out.println("Hot account " + accountId + " is no longer configured; folded " + folded);
+        }
+    }
+
+    /** A random credit slot for a hot account, or -1 if the account is not hot. */
+    public int slotFor(int accountId) {
+        Integer slots = hotAccounts.get(accountId);
+        return slots == null ? -1 : ThreadLocalRandom.current().nextInt(slots);
+    }
+
+    public boolean isHot(int accountId) {
+        return hotAccounts.containsKey(accountId);
+    }
+
+    /** Reloads the set of hot accounts from the database. */
+    public void refresh() throws SQLException {
+        hotAccounts = Collections.unmodifiableMap(subBalanceDAO.getHotAccounts());
+    }
+
+    /** Folds every hot account's slots into its balance now. */
+    public void foldAll() {
+        for (Integer accountId : hotAccounts.keySet()) {
+            try {
+                BigDecimal folded = subBalanceDAO.fold(accountId);
+                folds.incrementAndGet();
+                if (folded.signum() != 0) {
+                    AccountCache.getInstance().invalidate(accountId);
+                }
+            } catch (SQLException e) {
+                foldFailures.incrementAndGet();
+                System.err.println("Error folding hot account " + accountId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public Map<Integer, Integer> getHotAccounts() { return hotAccounts; }
+    public long getFoldCount() { return folds.get(); }
+    public long getFoldFailureCount() { return foldFailures.get(); }
+
+    public void shutdown() {
+        running = false;
+        folder.interrupt();
+    }
+
+    private void runFolder() {
+        while (running) {
+            try {
+                Thread.sleep(foldMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            foldAll();
+        }
+    }
+}
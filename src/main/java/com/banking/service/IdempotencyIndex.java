@@ -0,0 +1,55 @@
+package com.banking.service;
+
+import com.banking.cache.LruCache;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recent transfer idempotency keys and their results, bounded by
+ * banking.idempotency.maxKeys (default 100000) and expiring after
+ * banking.idempotency.ttlSeconds (default 900). A key maps to the future of
+ * the first submission, so a retry that arrives while the original is still
+ * running waits for it instead of running again. Keys that fall out of the
+ * window are still caught by the unique transactions.idempotency_key column.
+ */
+public class IdempotencyIndex {
+    private final LruCache<String, CompletableFuture<Boolean>> recent;
+
+    public IdempotencyIndex() {
+        this(Integer.getInteger("banking.idempotency.maxKeys", 100_000),
+                Long.getLong("banking.idempotency.ttlSeconds", 900L), TimeUnit.SECONDS);
+    }
+
+    public IdempotencyIndex(int maxKeys, long ttl, TimeUnit unit) {
+        this.recent = new LruCache<>(maxKeys, ttl, unit);
+    }
+
+    /**
+     * Claims {@code key} for {@code result}. Returns null if the caller now
+     * owns the key and must complete {@code result}, otherwise the result of
+     * the earlier submission.
+     */
+    public CompletableFuture<Boolean> claim(String key, CompletableFuture<Boolean> result) {
+        synchronized (recent) {
+            CompletableFuture<Boolean> existing = recent.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            recent.put(key, result);
+            return null;
+        }
+    }
+
+    /** Forgets a key whose submission failed without an outcome, so a retry runs again. */
+    public void release(String key) {
+        recent.remove(key);
+    }
+
+    public int size() {
+        return recent.size();
+    }
+
+    public LruCache<String, CompletableFuture<Boolean>> getCache() {
+        return recent;
+    }
+}
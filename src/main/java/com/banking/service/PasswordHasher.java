@@ -0,0 +1,218 @@
+package com.banking.service;
+
+import com.banking.metrics.MetricsRegistry;
+import com.banking.metrics.OperationMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Salted PBKDF2-HMAC-SHA256 password hashes, stored as
+ * {@code pbkdf2-sha256$<iterations>$<salt>$<hash>} (Base64). The iteration
+ * count is calibrated once at startup so one hash takes about
+ * banking.auth.hashMillis (default 50 ms) on this machine, never below
+ * MIN_ITERATIONS; -Dbanking.auth.iterations=N skips the calibration.
+ *
+ * Hashing runs on its own pool of banking.auth.hashThreads (default half the
+ * cores) with a queue of banking.auth.hashQueue (default 64) waiting jobs, so
+ * a burst of logins takes at most those cores and is rejected rather than
+ * queued without bound once the queue is full.
+ */
+public class PasswordHasher {
+    private static final OperationMetrics HASH = MetricsRegistry.operation("PasswordHasher.hash");
+    private static final OperationMetrics VERIFY = MetricsRegistry.operation("PasswordHasher.verify");
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2-sha256$";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final int MIN_ITERATIONS = 50_000;
+    private static final int MAX_ITERATIONS = 5_000_000;
+    private static final int CALIBRATION_ITERATIONS = 10_000;
+
+    private static volatile PasswordHasher instance;
+
+    private final SecureRandom random = new SecureRandom();
+    private final int iterations;
+    private final ThreadPoolExecutor executor;
+
+    PasswordHasher(int iterations, int threads, int queueSize) {
+        this.iterations = iterations;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueSize), r -> {
+                    Thread t = new Thread(r, "password-hash-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static PasswordHasher getInstance() {
+        if (instance == null) {
+            synchronized (PasswordHasher.class) {
+                if (instance == null) {
+                    Integer configured = Integer.getInteger("banking.auth.iterations");
+                    int iterations = configured != null ? configured
+                            : calibrate(Long.getLong("banking.auth.hashMillis", 50L));
+                    instance = new PasswordHasher(iterations,
+                            Integer.getInteger("banking.auth.hashThreads",
+                                    Math.max(1, Runtime.getRuntime().availableProcessors() / 2)),
+                            Integer.getInteger("banking.auth.hashQueue", 64));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Iterations that take about {@code targetMillis} here: the fastest of a
+     * few runs of CALIBRATION_ITERATIONS after a JIT warm-up, scaled and
+     * rounded to a thousand.
+     */
+    static int calibrate(long targetMillis) {
+        byte[] salt = new byte[SALT_BYTES];
+        char[] password = "calibration".toCharArray();
+        for (int i = 0; i < 10; i++) {
+            derive(password, salt, CALIBRATION_ITERATIONS);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            derive(password, salt, CALIBRATION_ITERATIONS);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double perIteration = (double) Math.max(best, 1) / CALIBRATION_ITERATIONS;
+        long iterations = Math.round(targetMillis * 1_000_000.0 / perIteration / 1000) * 1000;
+        return (int) Math.max(MIN_ITERATIONS, Math.min(MAX_ITERATIONS, iterations));
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /** Hashes {@code password} with a new salt on the hashing pool. */
+    public String hash(String password) {
+        return await(hashAsync(password));
+    }
+
+    public CompletableFuture<String> hashAsync(String password) {
+        return submit(() -> {
+            long start = System.nanoTime();
+            int rows = OperationMetrics.FAILED;
+            try {
+                byte[] salt = new byte[SALT_BYTES];
+                random.nextBytes(salt);
+                byte[] hash = derive(password.toCharArray(), salt, iterations);
+                rows = 1;
+                Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+                return PREFIX + iterations + "$" + base64.encodeToString(salt) + "$" + base64.encodeToString(hash);
+            } finally {
+                HASH.record(start, rows);
+            }
+        });
+    }
+
+    /**
+     * Checks {@code password} against a stored value, which is either a hash
+     * from {@link #hash} or a legacy plaintext password.
+     */
+    public boolean verify(String password, String stored) {
+        if (stored == null) {
+            return false;
+        }
+        if (!isHash(stored)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+        }
+        return await(submit(() -> {
+            long start = System.nanoTime();
+            int rows = OperationMetrics.FAILED;
+            try {
+                String[] parts = stored.split("\\$");
+                if (parts.length != 4) {
+                    rows = 0;
+                    return false;
+                }
+                Base64.Decoder base64 = Base64.getDecoder();
+                byte[] expected = base64.decode(parts[3]);
+                byte[] actual = derive(password.toCharArray(), base64.decode(parts[2]), Integer.parseInt(parts[1]));
+                boolean matches = MessageDigest.isEqual(expected, actual);
+                rows = matches ? 1 : 0;
+                return matches;
+            } catch (IllegalArgumentException e) {
+                rows = 0;
+                return false;
+            } finally {
+                VERIFY.record(start, rows);
+            }
+        }));
+    }
+
+    /**
+     * True for plaintext values and hashes made with under half the current
+     * cost. The calibrated cost moves a little between runs, so hashes close
+     * to it are left alone.
+     */
+    public boolean needsRehash(String stored) {
+        if (stored == null || !isHash(stored)) {
+            return true;
+        }
+        int end = stored.indexOf('$', PREFIX.length());
+        try {
+            return end < 0 || Integer.parseInt(stored.substring(PREFIX.length(), end)) < iterations / 2;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    public static boolean isHash(String stored) {
+        return stored.startsWith(PREFIX);
+    }
+
+    public int getQueuedCount() { return executor.getQueue().size(); }
+    public int getActiveCount() { return executor.getActiveCount(); }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            throw new RejectedExecutionException("Too many logins in progress, try again", e);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static byte[] derive(char[] password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password, salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
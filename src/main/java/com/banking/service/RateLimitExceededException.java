@@ -0,0 +1,16 @@
+package com.banking.service;
+
+/** Thrown when a user, account or username has used up its request rate. */
+public class RateLimitExceededException extends RuntimeException {
+    private final long retryAfterNanos;
+
+    public RateLimitExceededException(String message, long retryAfterNanos) {
+        super(message);
+        this.retryAfterNanos = retryAfterNanos;
+    }
+
+    /** How long until the next request would be allowed. */
+    public long getRetryAfterNanos() {
+        return retryAfterNanos;
+    }
+}
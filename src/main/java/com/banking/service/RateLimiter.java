@@ -0,0 +1,142 @@
+package com.banking.service;
+
+import com.banking.metrics.MetricsRegistry;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket per key (user, account, username), implemented as GCRA: each
+ * key holds only its "theoretical arrival time", and taking a token is one
+ * CAS on that long, so checks are lock-free and allocate nothing once the
+ * key is known. A key gets {@code burst} tokens up front and then
+ * {@code perSecond} more every second.
+ *
+ * Keys idle long enough to have a full bucket are dropped once more than
+ * MAX_KEYS are tracked. Rejections and the rest are on the
+ * {@code com.banking:type=RateLimiter,name=<name>} MBean.
+ */
+public class RateLimiter<K> implements RateLimiterMBean {
+    private static final int MAX_KEYS = 100_000;
+
+    private final String name;
+    private final double perSecond;
+    private final int burst;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final ConcurrentHashMap<K, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /** A limiter with {@code perSecond <= 0} allows everything. */
+    public RateLimiter(String name, double perSecond, int burst) {
+        if (burst <= 0) {
+            throw new IllegalArgumentException("burst must be positive");
+        }
+        this.name = name;
+        this.perSecond = perSecond;
+        this.burst = burst;
+        this.intervalNanos = perSecond <= 0 ? 0 : (long) (1_000_000_000L / perSecond);
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        MetricsRegistry.getInstance().registerMBean(this, "RateLimiter", name);
+    }
+
+    /**
+     * Limiter configured by banking.limits.&lt;key&gt;.perSecond and
+     * banking.limits.&lt;key&gt;.burst; all limits are off with
+     * -Dbanking.limits.enabled=false.
+     */
+    public static <K> RateLimiter<K> fromProperties(String key, double defaultPerSecond, int defaultBurst) {
+        boolean enabled = Boolean.parseBoolean(System.getProperty("banking.limits.enabled", "true"));
+        double perSecond = Double.parseDouble(System.getProperty("banking.limits." + key + ".perSecond",
+                String.valueOf(defaultPerSecond)));
+        int burst = Integer.getInteger("banking.limits." + key + ".burst", defaultBurst);
+        return new RateLimiter<>(key, enabled ? perSecond : 0, burst);
+    }
+
+    /** Takes a token for {@code key}. Returns 0 if one was available, otherwise the nanoseconds until one is. */
+    public long tryAcquire(K key) {
+        return tryAcquire(key, 1);
+    }
+
+    /**
+     * Takes {@code permits} tokens at once. More than {@code burst} are
+     * allowed only from a full bucket, and the excess is owed: later
+     * requests wait until it has refilled.
+     */
+    public long tryAcquire(K key, int permits) {
+        if (intervalNanos == 0) {
+            return 0;
+        }
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(System.nanoTime()));
+            if (buckets.size() > MAX_KEYS) {
+                sweep();
+            }
+        }
+        long now = System.nanoTime();
+        while (true) {
+            long arrival = bucket.get();
+            long start = arrival - now < 0 ? now : arrival;
+            long wait = start + (Math.min(permits, burst) - 1) * intervalNanos - now - toleranceNanos;
+            if (wait > 0) {
+                rejected.increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, start + permits * intervalNanos)) {
+                allowed.add(permits);
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Puts back a token taken by {@link #tryAcquire}, for a request that was
+     * refused by another limit after all. A full bucket stays full.
+     */
+    public void refund(K key) {
+        refund(key, 1);
+    }
+
+    public void refund(K key, int permits) {
+        if (intervalNanos == 0) {
+            return;
+        }
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.addAndGet(-permits * intervalNanos);
+            allowed.add(-permits);
+        }
+    }
+
+    // A bucket whose arrival time has passed is full, the same as a new one.
+    private void sweep() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            Iterator<AtomicLong> it = buckets.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().get() - now <= 0) {
+                    it.remove();
+                }
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    @Override public String getName() { return name; }
+    @Override public double getPerSecond() { return perSecond; }
+    @Override public int getBurst() { return burst; }
+    @Override public boolean isEnabled() { return intervalNanos > 0; }
+    @Override public long getAllowedCount() { return allowed.sum(); }
+    @Override public long getRejectedCount() { return rejected.sum(); }
+    @Override public int getTrackedKeys() { return buckets.size(); }
+}
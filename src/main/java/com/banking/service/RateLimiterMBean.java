@@ -0,0 +1,12 @@
+package com.banking.service;
+
+/** JMX view of a {@link RateLimiter}. */
+public interface RateLimiterMBean {
+    String getName();
+    double getPerSecond();
+    int getBurst();
+    boolean isEnabled();
+    long getAllowedCount();
+    long getRejectedCount();
+    int getTrackedKeys();
+}
@@ -0,0 +1,84 @@
+package com.banking.service;
+
+import com.banking.cache.BloomFilter;
+import com.banking.dao.UserDAO;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Bloom filters over registered usernames and emails, so that checking a
+ * name nobody has taken (the common case, and every keystroke of the live
+ * check in the registration form) needs no query. A "might be taken" answer
+ * still goes to the database. Values are compared lower-cased, matching the
+ * case-insensitive unique keys on users.
+ *
+ * The filters are filled from the users table in the background on first
+ * use; until that finishes every check goes to the database. Sized by
+ * banking.registration.expectedUsers (default 100000) at a 1% false
+ * positive rate; past that size the rate, not correctness, degrades.
+ */
+public class RegistrationIndex {
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private static volatile RegistrationIndex instance;
+
+    private final BloomFilter usernames;
+    private final BloomFilter emails;
+    private volatile boolean ready;
+
+    RegistrationIndex(int expectedUsers) {
+        this.usernames = new BloomFilter(expectedUsers, FALSE_POSITIVE_RATE);
+        this.emails = new BloomFilter(expectedUsers, FALSE_POSITIVE_RATE);
+    }
+
+    public static RegistrationIndex getInstance() {
+        if (instance == null) {
+            synchronized (RegistrationIndex.class) {
+                if (instance == null) {
+                    RegistrationIndex index = new RegistrationIndex(
+                            Integer.getInteger("banking.registration.expectedUsers", 100_000));
+                    ServiceExecutor.get().execute(() -> index.load(new UserDAO()));
+                    instance = index;
+                }
+            }
+        }
+        return instance;
+    }
+
+    private void load(UserDAO userDAO) {
+        try {
+            userDAO.forEachIdentifier(this::add);
+            ready = true;
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Error loading registration index: " + e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** Records a registered user. Called before the insert commits, so a concurrent check errs towards "taken". */
+    public void add(String username, String email) {
+        if (username != null) {
+            usernames.add(normalize(username));
+        }
+        if (email != null) {
+            emails.add(normalize(email));
+        }
+    }
+
+    /** False only if no user has this username. */
+    public boolean mightHaveUsername(String username) {
+        return !ready || usernames.mightContain(normalize(username));
+    }
+
+    /** False only if no user has this email. */
+    public boolean mightHaveEmail(String email) {
+        return !ready || emails.mightContain(normalize(email));
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,54 @@
+package com.banking.service;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor that runs blocking service/JDBC calls off the Swing Event Dispatch
+ * Thread. Uses a virtual-thread-per-task executor when the runtime provides
+ * one (JDK 21+) and a bounded pool of daemon platform threads otherwise.
+ */
+public final class ServiceExecutor {
+    private static final int PLATFORM_THREADS = Integer.getInteger("banking.service.threads", 16);
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    private ServiceExecutor() {}
+
+    public static ExecutorService get() {
+        return EXECUTOR;
+    }
+
+    /** Unwraps the CompletionException/ExecutionException layers a failed future adds. */
+    public static Throwable rootCause(Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static ExecutorService createExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(PLATFORM_THREADS, PLATFORM_THREADS,
+                    60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                        Thread t = new Thread(r, "banking-service-" + counter.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+}
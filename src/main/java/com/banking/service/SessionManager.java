@@ -0,0 +1,165 @@
+package com.banking.service;
+
+import com.banking.model.User;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Signed-in users keyed by opaque session token, so a client that already
+ * logged in can re-authenticate with one in-memory lookup instead of a
+ * password check. Tokens are 256 random bits, Base64url encoded. Sessions
+ * expire after banking.sessions.ttlMinutes (default 30) without use, and at
+ * most banking.sessions.max (default 100000) are kept; past that the
+ * sessions closest to expiry are dropped and their clients have to log in
+ * again.
+ *
+ * Lookups are a ConcurrentHashMap read and take no lock. Each session
+ * carries its own expiry, which validation pushes forward once less than
+ * half the TTL is left. Expired sessions are removed when next looked up,
+ * and swept when a new session would exceed the bound.
+ */
+public class SessionManager {
+    private static final int TOKEN_BYTES = 32;
+    // Share of the bound freed by a sweep that finds no expired sessions, so sweeps stay rare at capacity.
+    private static final int SWEEP_PERCENT = 10;
+
+    private static volatile SessionManager instance;
+
+    private final SecureRandom random = new SecureRandom();
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final int maxSessions;
+    private final long ttlNanos;
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    SessionManager(int maxSessions, long ttl, TimeUnit unit) {
+        if (maxSessions <= 0) {
+            throw new IllegalArgumentException("maxSessions must be positive");
+        }
+        this.maxSessions = maxSessions;
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    public static SessionManager getInstance() {
+        if (instance == null) {
+            synchronized (SessionManager.class) {
+                if (instance == null) {
+                    instance = new SessionManager(Integer.getInteger("banking.sessions.max", 100_000),
+                            Long.getLong("banking.sessions.ttlMinutes", 30L), TimeUnit.MINUTES);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** Starts a session for an authenticated user and returns its token. */
+    public String create(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        sessions.put(token, new Session(user, System.nanoTime() + ttlNanos));
+        if (sessions.size() > maxSessions) {
+            sweep();
+        }
+        return token;
+    }
+
+    /** The user signed in with {@code token}, or null if it is unknown or has expired. */
+    public User validate(String token) {
+        if (token == null) {
+            misses.increment();
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            misses.increment();
+            return null;
+        }
+        long now = System.nanoTime();
+        long expiresAt = session.expiresAtNanos;
+        if (now - expiresAt > 0) {
+            sessions.remove(token, session);
+            misses.increment();
+            return null;
+        }
+        // Only the session's own field is written, so a concurrent logout cannot be undone.
+        if (expiresAt - now < ttlNanos / 2) {
+            session.expiresAtNanos = now + ttlNanos;
+        }
+        hits.increment();
+        return session.user;
+    }
+
+    public boolean invalidate(String token) {
+        return token != null && sessions.remove(token) != null;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    public double getHitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0.0 : (double) hit / total;
+    }
+
+    // Drops expired sessions; if that is not enough, the ones closest to expiry.
+    private void sweep() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            sessions.entrySet().removeIf(e -> now - e.getValue().expiresAtNanos > 0);
+            int excess = sessions.size() - maxSessions;
+            if (excess <= 0) {
+                return;
+            }
+            // Expiries are copied first; validate() keeps moving them while this sorts.
+            List<Candidate> candidates = new ArrayList<>(sessions.size());
+            for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+                candidates.add(new Candidate(entry.getKey(), entry.getValue(), entry.getValue().expiresAtNanos - now));
+            }
+            candidates.sort(Comparator.comparingLong(c -> c.remainingNanos));
+            int drop = (int) Math.min(candidates.size(), excess + (long) maxSessions * SWEEP_PERCENT / 100);
+            for (int i = 0; i < drop; i++) {
+                sessions.remove(candidates.get(i).token, candidates.get(i).session);
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private static final class Candidate {
+        private final String token;
+        private final Session session;
+        private final long remainingNanos;
+
+        private Candidate(String token, Session session, long remainingNanos) {
+            this.token = token;
+            this.session = session;
+            this.remainingNanos = remainingNanos;
+        }
+    }
+
+    private static final class Session {
+        private final User user;
+        private volatile long expiresAtNanos;
+
+        private Session(User user, long expiresAtNanos) {
+            this.user = user;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
@@ -4,15 +4,24 @@ import com.banking.BankingApplication;
 import com.banking.model.User;
 import com.banking.model.Account;
 import com.banking.model.Transaction;
+import com.banking.event.BalanceChange;
+import com.banking.event.BalanceEventBus;
+import com.banking.event.BalanceListener;
+import com.banking.service.AsyncBankingService;
 import com.banking.service.BankingService;
+import com.banking.service.ServiceExecutor;
+import com.banking.service.SessionManager;
+import com.banking.ui.components.AccountTableModel;
+import com.banking.ui.components.TransactionTableModel;
 
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
-import java.math.BigDecimal;
-import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.List;
 import java.io.File;
 import java.io.IOException;
@@ -20,27 +29,45 @@ import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 
 public class DashboardFrame extends JFrame {
+    private static final int RECENT_TRANSACTIONS = 20;
+
     private User currentUser;
     private BankingService bankingService;
+    private AsyncBankingService asyncBankingService;
     private JLabel welcomeLabel;
     private JLabel balanceLabel;
     private JTable accountsTable;
     private JTable transactionsTable;
+    private AccountTableModel accountsModel;
+    private TransactionTableModel transactionsModel;
     private JButton transferButton;
     private JButton refreshButton;
     private JButton logoutButton;
     private BufferedImage backgroundImage;
+    private final String sessionToken;
+    private final BalanceListener balanceListener = this::onBalanceChanged;
+    // Written on the EDT, read on the event bus thread to skip unrelated accounts cheaply.
+    private volatile Set<Integer> shownAccountIds = Collections.emptySet();
 
-    public DashboardFrame(User user) {
+    public DashboardFrame(User user, String sessionToken, BankingService bankingService) {
         this.currentUser = user;
-        this.bankingService = new BankingService();
+        this.sessionToken = sessionToken;
+        this.bankingService = bankingService;
+        this.asyncBankingService = new AsyncBankingService(bankingService);
         loadBackgroundImage();
         initializeComponents();
         setupLayout();
         setupEventHandlers();
+        BalanceEventBus.getInstance().subscribe(balanceListener);
         loadUserData();
     }
 
+    @Override
+    public void dispose() {
+        BalanceEventBus.getInstance().unsubscribe(balanceListener);
+        super.dispose();
+    }
+
     private void loadBackgroundImage() {
         try {
             backgroundImage = ImageIO.read(new File("C:/Users/Kazim/Desktop/Bank/src/main/resources/icon/backbg.png"));
@@ -59,13 +86,13 @@ public class DashboardFrame extends JFrame {
         balanceLabel = new JLabel();
 
         // Accounts table
-        String[] accountColumns = {"Account Number", "Type", "Balance", "Created Date"};
-        accountsTable = new JTable(new DefaultTableModel(accountColumns, 0));
+        accountsModel = new AccountTableModel();
+        accountsTable = new JTable(accountsModel);
         accountsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
 
         // Transactions table
-        String[] transactionColumns = {"Date", "Type", "Amount", "Description", "Status"};
-        transactionsTable = new JTable(new DefaultTableModel(transactionColumns, 0));
+        transactionsModel = new TransactionTableModel(RECENT_TRANSACTIONS);
+        transactionsTable = new JTable(transactionsModel);
 
         transferButton = new JButton("Transfer Funds");
         refreshButton = new JButton("Refresh");
@@ -208,53 +235,100 @@ public class DashboardFrame extends JFrame {
             int result = JOptionPane.showConfirmDialog(DashboardFrame.this,
                     "Are you sure you want to logout?", "Logout", JOptionPane.YES_NO_OPTION);
             if (result == JOptionPane.YES_OPTION) {
+                SessionManager.getInstance().invalidate(sessionToken);
                 dispose();
                 new BankingApplication().showLogin();
             }
         });
     }
 
+    /** Sends the user back to the login screen once the session has expired or been ended. */
+    private boolean checkSession() {
+        if (SessionManager.getInstance().validate(sessionToken) != null) {
+            return true;
+        }
+        JOptionPane.showMessageDialog(this, "Your session has expired. Please log in again.",
+                "Session Expired", JOptionPane.WARNING_MESSAGE);
+        dispose();
+        new BankingApplication().showLogin();
+        return false;
+    }
+
+    /**
+     * Reloads the dashboard. Once the first account's transactions are shown,
+     * only transactions newer than the last one seen are fetched, and the
+     * table models fire events just for the rows that changed.
+     */
     private void loadUserData() {
+        if (!checkSession()) {
+            return;
+        }
         welcomeLabel.setText("Welcome, " + currentUser.getFirstName() + " " + currentUser.getLastName() + "!");
+        setLoading(true);
+        int shownAccountId = transactionsModel.getAccountId();
+        int lastTransactionId = transactionsModel.getLastTransactionId();
+        // Taken before the load, so pushes it already includes are dropped and later ones still apply.
+        long balanceVersion = BalanceEventBus.getInstance().currentVersion();
+
+        asyncBankingService.getUserAccounts(currentUser.getUserId())
+                .thenCompose(accounts -> {
+                    if (accounts.isEmpty()) {
+                        return CompletableFuture.completedFuture(
+                                new UserData(accounts, Collections.<Transaction>emptyList(), false));
+                    }
+                    int accountId = accounts.get(0).getAccountId();
+                    if (accountId == shownAccountId) {
+                        return asyncBankingService
+                                .getAccountTransactionsSince(accountId, lastTransactionId, RECENT_TRANSACTIONS)
+                                .thenApply(transactions -> new UserData(accounts, transactions, true));
+                    }
+                    return asyncBankingService.getAccountTransactions(accountId)
+                            .thenApply(transactions -> new UserData(accounts, transactions, false));
+                })
+                .whenCompleteAsync((data, error) -> {
+                    setLoading(false);
+                    if (error != null) {
+                        JOptionPane.showMessageDialog(this,
+                                "Failed to load account data: " + ServiceExecutor.rootCause(error).getMessage(),
+                                "Error", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    accountsModel.update(data.accounts, balanceVersion);
+                    Set<Integer> accountIds = new HashSet<>();
+                    for (Account account : data.accounts) {
+                        accountIds.add(account.getAccountId());
+                    }
+                    shownAccountIds = accountIds;
+                    updateTotalBalance();
+                    if (data.delta) {
+                        transactionsModel.prepend(data.transactions);
+                    } else {
+                        transactionsModel.load(data.accounts.isEmpty() ? 0 : data.accounts.get(0).getAccountId(),
+                                data.transactions);
+                    }
+                }, SwingUtilities::invokeLater);
+    }
 
-        List<Account> accounts = bankingService.getUserAccounts(currentUser.getUserId());
-        DefaultTableModel accountsModel = (DefaultTableModel) accountsTable.getModel();
-        accountsModel.setRowCount(0);
-
-        BigDecimal totalBalance = BigDecimal.ZERO;
-        for (Account account : accounts) {
-            Object[] row = {
-                    account.getAccountNumber(),
-                    account.getAccountType(),
-                    "$" + account.getBalance(),
-                    account.getCreatedDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"))
-            };
-            accountsModel.addRow(row);
-            totalBalance = totalBalance.add(account.getBalance());
+    private void onBalanceChanged(BalanceChange change) {
+        if (!shownAccountIds.contains(change.getAccountId())) {
+            return;
         }
+        SwingUtilities.invokeLater(() -> {
+            if (accountsModel.applyBalance(change.getAccountId(), change.getBalance(), change.getVersion())) {
+                updateTotalBalance();
+            }
+        });
+    }
 
-        balanceLabel.setText("Total Balance: $" + totalBalance);
-
-        if (!accounts.isEmpty()) {
-            loadTransactions(accounts.get(0).getAccountId());
-        }
+    private void updateTotalBalance() {
+        balanceLabel.setText("Total Balance: $" + accountsModel.getTotalBalance());
     }
 
-    private void loadTransactions(int accountId) {
-        List<Transaction> transactions = bankingService.getAccountTransactions(accountId);
-        DefaultTableModel transactionsModel = (DefaultTableModel) transactionsTable.getModel();
-        transactionsModel.setRowCount(0);
-
-        for (Transaction transaction : transactions) {
-            Object[] row = {
-                    transaction.getTransactionDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")),
-                    transaction.getTransactionType(),
-                    "$" + transaction.getAmount(),
-                    transaction.getDescription(),
-                    transaction.getStatus()
-            };
-            transactionsModel.addRow(row);
-        }
+    private void setLoading(boolean loading) {
+        refreshButton.setEnabled(!loading);
+        transferButton.setEnabled(!loading);
+        refreshButton.setText(loading ? "Loading..." : "Refresh");
+        setCursor(loading ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
     }
 
     private void openTransferDialog() {
@@ -265,4 +339,16 @@ public class DashboardFrame extends JFrame {
             loadUserData();
         }
     }
+
+    private static class UserData {
+        private final List<Account> accounts;
+        private final List<Transaction> transactions;
+        private final boolean delta;
+
+        UserData(List<Account> accounts, List<Transaction> transactions, boolean delta) {
+            this.accounts = accounts;
+            this.transactions = transactions;
+            this.delta = delta;
+        }
+    }
 }
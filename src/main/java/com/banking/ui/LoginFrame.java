@@ -2,13 +2,16 @@ package com.banking.ui;
 
 import com.banking.BankingApplication;
 import com.banking.model.User;
+import com.banking.service.AsyncAuthenticationService;
 import com.banking.service.AuthenticationService;
+import com.banking.service.ServiceExecutor;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import javax.imageio.ImageIO;
 
 public class LoginFrame extends JFrame {
@@ -18,6 +21,7 @@ public class LoginFrame extends JFrame {
     private JButton loginButton;
     private JButton registerButton;
     private AuthenticationService authService;
+    private AsyncAuthenticationService asyncAuthService;
     private BankingApplication mainApp;
     private BufferedImage backgroundImage;
     private ImageIcon bankIcon;
@@ -27,12 +31,28 @@ public class LoginFrame extends JFrame {
     private static final String LOGO_IMAGE_PATH = "/icon/bank.png";
     private static final String CARD_IMAGE_PATH = "/icon/card.png";
 
-    public LoginFrame(BankingApplication mainApp) {
+    /** Login and registration stay disabled until {@code startup} supplies the service. */
+    public LoginFrame(BankingApplication mainApp, CompletableFuture<AuthenticationService> startup) {
         this.mainApp = mainApp;
-        this.authService = new AuthenticationService();
         initializeComponents();
         setupLayout();
         setupEventHandlers();
+        if (!startup.isDone()) {
+            setBusy(true);
+            loginButton.setText("Starting...");
+        }
+        startup.whenCompleteAsync((service, error) -> {
+            if (error != null) {
+                JOptionPane.showMessageDialog(this,
+                        "Failed to start application: " + ServiceExecutor.rootCause(error).getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                System.exit(1);
+                return;
+            }
+            authService = service;
+            asyncAuthService = new AsyncAuthenticationService(service);
+            setBusy(false);
+        }, SwingUtilities::invokeLater);
     }
 
     private void initializeComponents() {
@@ -210,22 +230,32 @@ public class LoginFrame extends JFrame {
             return;
         }
 
-        try {
-            User user = authService.login(username, password);
-            if (user != null) {
-                JOptionPane.showMessageDialog(this, "Login successful! Welcome, " + user.getFirstName() + "!",
-                        "Success", JOptionPane.INFORMATION_MESSAGE);
-                mainApp.showDashboard(user);
-                dispose();
-            } else {
-                JOptionPane.showMessageDialog(this, "Invalid username or password.",
-                        "Login Failed", JOptionPane.ERROR_MESSAGE);
-                passwordField.setText("");
-            }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Login failed: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        setBusy(true);
+        asyncAuthService.login(username, password)
+                .whenCompleteAsync((user, error) -> {
+                    setBusy(false);
+                    if (error != null) {
+                        JOptionPane.showMessageDialog(this, "Login failed: " + ServiceExecutor.rootCause(error).getMessage(),
+                                "Error", JOptionPane.ERROR_MESSAGE);
+                    } else if (user != null) {
+                        JOptionPane.showMessageDialog(this, "Login successful! Welcome, " + user.getFirstName() + "!",
+                                "Success", JOptionPane.INFORMATION_MESSAGE);
+                        mainApp.showDashboard(user, authService.startSession(user));
+                        dispose();
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Invalid username or password.",
+                                "Login Failed", JOptionPane.ERROR_MESSAGE);
+                        passwordField.setText("");
+                    }
+                }, SwingUtilities::invokeLater);
+    }
+
+    private void setBusy(boolean busy) {
+        loginButton.setEnabled(!busy);
+        registerButton.setEnabled(!busy);
+        passwordField.setEnabled(!busy);
+        loginButton.setText(busy ? "Logging in..." : "Login");
+        setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
     }
 
     private void openRegistrationDialog() {
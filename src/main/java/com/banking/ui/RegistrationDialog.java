@@ -1,10 +1,13 @@
 package com.banking.ui;
 
 import com.banking.model.User;
+import com.banking.service.AsyncAuthenticationService;
 import com.banking.service.AuthenticationService;
 
 import javax.imageio.ImageIO;
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.MouseAdapter;
@@ -12,8 +15,12 @@ import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 public class RegistrationDialog extends JDialog {
+    // Wait for a pause in typing before checking availability
+    private static final int AVAILABILITY_CHECK_DELAY_MILLIS = 300;
 
     private JTextField usernameField;
     private JPasswordField passwordField;
@@ -24,12 +31,16 @@ public class RegistrationDialog extends JDialog {
     private JTextField phoneField;
     private JButton registerButton;
     private JButton cancelButton;
+    private JLabel usernameStatus;
+    private JLabel emailStatus;
     private AuthenticationService authService;
+    private AsyncAuthenticationService asyncAuthService;
     private BufferedImage backgroundImage;
 
     public RegistrationDialog(JFrame parent, AuthenticationService authService) {
         super(parent, "User Registration", true);
         this.authService = authService;
+        this.asyncAuthService = new AsyncAuthenticationService(authService);
         loadBackgroundImage();
         initializeComponents();
         setupUI();
@@ -56,6 +67,8 @@ public class RegistrationDialog extends JDialog {
         lastNameField = new JTextField(18);
         emailField = new JTextField(18);
         phoneField = new JTextField(18);
+        usernameStatus = createStatusLabel();
+        emailStatus = createStatusLabel();
 
         registerButton = new JButton("Register");
         cancelButton = new JButton("Cancel");
@@ -65,6 +78,13 @@ public class RegistrationDialog extends JDialog {
         styleButton(cancelButton);
     }
 
+    private JLabel createStatusLabel() {
+        JLabel label = new JLabel(" ");
+        label.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        label.setPreferredSize(new Dimension(70, 20));
+        return label;
+    }
+
     private void styleButton(JButton button) {
         button.setPreferredSize(new Dimension(130, 40));
         button.setBackground(Color.WHITE);
@@ -109,7 +129,7 @@ public class RegistrationDialog extends JDialog {
         JPanel formPanel = new JPanel(new GridBagLayout());
         formPanel.setBackground(new Color(255, 255, 255, 200)); // translucent white
         formPanel.setBorder(BorderFactory.createEmptyBorder(30, 50, 30, 50));
-        formPanel.setPreferredSize(new Dimension(550, 470)); // slightly taller
+        formPanel.setPreferredSize(new Dimension(640, 470)); // room for the availability labels
 
         GridBagConstraints gbc = new GridBagConstraints();
         gbc.insets = new Insets(10, 10, 10, 10);
@@ -136,6 +156,8 @@ public class RegistrationDialog extends JDialog {
         addFormField(formPanel, gbc, "Last Name:", lastNameField, 5);
         addFormField(formPanel, gbc, "Email:", emailField, 6);
         addFormField(formPanel, gbc, "Phone Number:", phoneField, 7);
+        addStatusLabel(formPanel, gbc, usernameStatus, 1);
+        addStatusLabel(formPanel, gbc, emailStatus, 6);
 
         // ---------- Buttons Panel ----------
         JPanel buttonPanel = new JPanel();
@@ -146,7 +168,7 @@ public class RegistrationDialog extends JDialog {
 
         gbc.gridx = 0;
         gbc.gridy = 8;
-        gbc.gridwidth = 2;
+        gbc.gridwidth = 3;
         gbc.anchor = GridBagConstraints.CENTER;
         gbc.fill = GridBagConstraints.NONE;
         formPanel.add(buttonPanel, gbc);
@@ -170,9 +192,53 @@ public class RegistrationDialog extends JDialog {
         panel.add(field, gbc);
     }
 
+    private void addStatusLabel(JPanel panel, GridBagConstraints gbc, JLabel label, int row) {
+        gbc.gridx = 2;
+        gbc.gridy = row;
+        gbc.fill = GridBagConstraints.NONE;
+        panel.add(label, gbc);
+    }
+
     private void setupEventHandlers() {
         registerButton.addActionListener((ActionEvent e) -> performRegistration());
         cancelButton.addActionListener((ActionEvent e) -> dispose());
+        addAvailabilityCheck(usernameField, usernameStatus, asyncAuthService::isUsernameAvailable);
+        addAvailabilityCheck(emailField, emailStatus, asyncAuthService::isEmailAvailable);
+    }
+
+    /**
+     * Shows whether the field's value is still free once the user stops typing.
+     * Answers for text that has changed since the check started are dropped.
+     */
+    private void addAvailabilityCheck(JTextField field, JLabel status,
+                                      Function<String, CompletableFuture<Boolean>> check) {
+        Timer timer = new Timer(AVAILABILITY_CHECK_DELAY_MILLIS, e -> {
+            String value = field.getText().trim();
+            if (value.isEmpty()) {
+                status.setText(" ");
+                return;
+            }
+            check.apply(value).whenCompleteAsync((available, error) -> {
+                if (!value.equals(field.getText().trim())) {
+                    return;
+                }
+                if (error != null) {
+                    status.setText(" ");
+                } else if (available) {
+                    status.setText("available");
+                    status.setForeground(new Color(0, 128, 0));
+                } else {
+                    status.setText("taken");
+                    status.setForeground(Color.RED);
+                }
+            }, SwingUtilities::invokeLater);
+        });
+        timer.setRepeats(false);
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { timer.restart(); }
+            public void removeUpdate(DocumentEvent e) { timer.restart(); }
+            public void changedUpdate(DocumentEvent e) { timer.restart(); }
+        });
     }
 
     private void performRegistration() {
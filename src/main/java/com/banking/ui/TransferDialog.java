@@ -2,7 +2,9 @@ package com.banking.ui;
 
 import com.banking.model.User;
 import com.banking.model.Account;
+import com.banking.service.AsyncBankingService;
 import com.banking.service.BankingService;
+import com.banking.service.ServiceExecutor;
 
 import javax.imageio.ImageIO;
 import javax.swing.*;
@@ -12,6 +14,8 @@ import java.io.File;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public class TransferDialog extends JDialog {
     private JComboBox<String> fromAccountCombo;
@@ -22,13 +26,19 @@ public class TransferDialog extends JDialog {
     private JButton refreshButton;
     private JButton cancelButton;
     private BankingService bankingService;
+    private AsyncBankingService asyncBankingService;
     private User currentUser;
     private boolean transferCompleted = false;
+    // The last submitted transfer and its idempotency key, kept until its outcome is
+    // known so that retrying the same transfer after an error cannot run it twice.
+    private String pendingSubmission;
+    private String pendingTransferKey;
     private Image backgroundImage;
 
     public TransferDialog(JFrame parent, BankingService bankingService, User currentUser) {
         super(parent, "Transfer Funds", true);
         this.bankingService = bankingService;
+        this.asyncBankingService = new AsyncBankingService(bankingService);
         this.currentUser = currentUser;
 
         // ✅ Load background image from given absolute directory
@@ -203,13 +213,29 @@ public class TransferDialog extends JDialog {
     }
 
     private void loadUserAccounts() {
-        fromAccountCombo.removeAllItems();
-        List<Account> accounts = bankingService.getUserAccounts(currentUser.getUserId());
-        for (Account account : accounts) {
-            String displayText = account.getAccountNumber() + " (" + account.getAccountType() +
-                    ") - $" + account.getBalance().toString();
-            fromAccountCombo.addItem(displayText);
-        }
+        setBusy(true);
+        asyncBankingService.getUserAccounts(currentUser.getUserId())
+                .whenCompleteAsync((accounts, error) -> {
+                    setBusy(false);
+                    if (error != null) {
+                        JOptionPane.showMessageDialog(this,
+                                "Failed to load accounts: " + ServiceExecutor.rootCause(error).getMessage(),
+                                "Transfer Error", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    fromAccountCombo.removeAllItems();
+                    for (Account account : accounts) {
+                        String displayText = account.getAccountNumber() + " (" + account.getAccountType() +
+                                ") - $" + account.getBalance().toString();
+                        fromAccountCombo.addItem(displayText);
+                    }
+                }, SwingUtilities::invokeLater);
+    }
+
+    private void setBusy(boolean busy) {
+        transferButton.setEnabled(!busy);
+        refreshButton.setEnabled(!busy);
+        setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
     }
 
     private void performTransfer() {
@@ -246,25 +272,45 @@ public class TransferDialog extends JDialog {
         }
 
         if (description.isEmpty()) description = "Fund transfer";
+        String transferDescription = description;
 
         String selectedAccount = (String) fromAccountCombo.getSelectedItem();
         String fromAccountNumber = selectedAccount.split(" ")[0];
-        Account fromAccount = bankingService.getAccountByNumber(fromAccountNumber);
 
+        setBusy(true);
+        CompletableFuture<Account> fromLookup = asyncBankingService.getAccountByNumber(fromAccountNumber);
+        CompletableFuture<Account> toLookup = asyncBankingService.getAccountByNumber(toAccountNumber);
+        CompletableFuture<BigDecimal> availableLookup = fromLookup.thenCompose(fromAccount -> fromAccount == null
+                ? CompletableFuture.completedFuture(null)
+                : asyncBankingService.getAvailableBalance(fromAccount));
+        CompletableFuture.allOf(availableLookup, toLookup)
+                .whenCompleteAsync((ignored, error) -> {
+                    setBusy(false);
+                    if (error != null) {
+                        showTransferFailure(error);
+                        return;
+                    }
+                    confirmAndTransfer(fromLookup.join(), toLookup.join(), availableLookup.join(),
+                            fromAccountNumber, toAccountNumber, amount, transferDescription);
+                }, SwingUtilities::invokeLater);
+    }
+
+    private void confirmAndTransfer(Account fromAccount, Account toAccount, BigDecimal availableBalance,
+                                    String fromAccountNumber, String toAccountNumber,
+                                    BigDecimal amount, String description) {
         if (fromAccount == null) {
             JOptionPane.showMessageDialog(this, "Source account not found.",
                     "Transfer Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
-        Account toAccount = bankingService.getAccountByNumber(toAccountNumber);
         if (toAccount == null) {
             JOptionPane.showMessageDialog(this, "Destination account not found.",
                     "Transfer Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
-        if (fromAccount.getBalance().compareTo(amount) < 0) {
+        if (availableBalance.compareTo(amount) < 0) {
             JOptionPane.showMessageDialog(this, "Insufficient balance for transfer.",
                     "Transfer Error", JOptionPane.ERROR_MESSAGE);
             return;
@@ -276,21 +322,41 @@ public class TransferDialog extends JDialog {
 
         if (confirmResult != JOptionPane.YES_OPTION) return;
 
-        boolean success = bankingService.transferFunds(
-                fromAccount.getAccountId(),
-                toAccount.getAccountId(),
-                amount, description
-        );
-
-        if (success) {
-            JOptionPane.showMessageDialog(this, "Transfer completed successfully!",
-                    "Success", JOptionPane.INFORMATION_MESSAGE);
-            transferCompleted = true;
-            dispose();
-        } else {
-            JOptionPane.showMessageDialog(this, "Transfer failed. Please try again.",
-                    "Transfer Error", JOptionPane.ERROR_MESSAGE);
+        String submission = fromAccount.getAccountId() + "|" + toAccount.getAccountId() + "|" + amount + "|" + description;
+        if (pendingTransferKey == null || !submission.equals(pendingSubmission)) {
+            pendingSubmission = submission;
+            pendingTransferKey = UUID.randomUUID().toString();
         }
+        String idempotencyKey = pendingTransferKey;
+
+        setBusy(true);
+        transferButton.setText("Transferring...");
+        asyncBankingService.transferFunds(fromAccount.getAccountId(), toAccount.getAccountId(), amount, description,
+                        idempotencyKey)
+                .whenCompleteAsync((success, error) -> {
+                    setBusy(false);
+                    transferButton.setText("Transfer");
+                    if (error != null) {
+                        // Outcome unknown: keep the key so retrying this transfer is deduplicated.
+                        showTransferFailure(error);
+                        return;
+                    }
+                    pendingTransferKey = null;
+                    if (success) {
+                        JOptionPane.showMessageDialog(this, "Transfer completed successfully!",
+                                "Success", JOptionPane.INFORMATION_MESSAGE);
+                        transferCompleted = true;
+                        dispose();
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Transfer failed. Please try again.",
+                                "Transfer Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }, SwingUtilities::invokeLater);
+    }
+
+    private void showTransferFailure(Throwable error) {
+        JOptionPane.showMessageDialog(this, "Transfer failed: " + ServiceExecutor.rootCause(error).getMessage(),
+                "Transfer Error", JOptionPane.ERROR_MESSAGE);
     }
 
     public boolean isTransferCompleted() {
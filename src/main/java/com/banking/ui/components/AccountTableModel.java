@@ -0,0 +1,138 @@
+package com.banking.ui.components;
+
+import com.banking.model.Account;
+
+import javax.swing.table.AbstractTableModel;
+import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Accounts table backed by the {@link Account} objects themselves. Refreshing
+ * with {@link #update(List)} only fires events for rows that actually changed.
+ */
+public class AccountTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = {"Account Number", "Type", "Balance", "Created Date"};
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private final List<Account> accounts = new ArrayList<>();
+    private final Map<Integer, Long> balanceVersions = new HashMap<>();
+
+    @Override
+    public int getRowCount() {
+        return accounts.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Account account = accounts.get(rowIndex);
+        switch (columnIndex) {
+            case 0: return account.getAccountNumber();
+            case 1: return account.getAccountType();
+            case 2: return "$" + account.getBalance();
+            case 3: return account.getCreatedDate() == null ? "" : account.getCreatedDate().format(DATE_FORMAT);
+            default: return null;
+        }
+    }
+
+    public Account getAccountAt(int rowIndex) {
+        return accounts.get(rowIndex);
+    }
+
+    public BigDecimal getTotalBalance() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Account account : accounts) {
+            total = total.add(account.getBalance());
+        }
+        return total;
+    }
+
+    /**
+     * Sets the balance of one account row if it is shown and {@code version}
+     * is newer than the last one applied to it. Returns true if a row changed.
+     */
+    public boolean applyBalance(int accountId, BigDecimal balance, long version) {
+        for (int i = 0; i < accounts.size(); i++) {
+            Account current = accounts.get(i);
+            if (current.getAccountId() != accountId) {
+                continue;
+            }
+            Long applied = balanceVersions.get(accountId);
+            if (applied != null && applied >= version) {
+                return false;
+            }
+            balanceVersions.put(accountId, version);
+            if (current.getBalance().compareTo(balance) == 0) {
+                return false;
+            }
+            // Rows may be shared cache entries, so replace rather than mutate.
+            Account updated = new Account(current.getUserId(), current.getAccountNumber(),
+                    current.getAccountType(), balance);
+            updated.setAccountId(current.getAccountId());
+            updated.setCreatedDate(current.getCreatedDate());
+            updated.setActive(current.isActive());
+            accounts.set(i, updated);
+            fireTableRowsUpdated(i, i);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Replaces the rows with {@code latest}. When the account list is the same
+     * (or has grown at the end) only changed rows are updated and new rows
+     * inserted; otherwise the whole table is reloaded.
+     *
+     * {@code version} is the BalanceEventBus version taken before the rows
+     * were read; later {@link #applyBalance} calls must be newer than it.
+     */
+    public void update(List<Account> latest, long version) {
+        balanceVersions.clear();
+        for (Account account : latest) {
+            balanceVersions.put(account.getAccountId(), version);
+        }
+
+        int common = Math.min(accounts.size(), latest.size());
+        for (int i = 0; i < common; i++) {
+            if (accounts.get(i).getAccountId() != latest.get(i).getAccountId()) {
+                accounts.clear();
+                accounts.addAll(latest);
+                fireTableDataChanged();
+                return;
+            }
+        }
+
+        for (int i = 0; i < common; i++) {
+            Account current = accounts.get(i);
+            Account updated = latest.get(i);
+            accounts.set(i, updated);
+            if (current.getBalance().compareTo(updated.getBalance()) != 0
+                    || !Objects.equals(current.getAccountType(), updated.getAccountType())) {
+                fireTableRowsUpdated(i, i);
+            }
+        }
+
+        if (latest.size() > common) {
+            accounts.addAll(latest.subList(common, latest.size()));
+            fireTableRowsInserted(common, latest.size() - 1);
+        } else if (accounts.size() > common) {
+            int removed = accounts.size() - 1;
+            accounts.subList(common, accounts.size()).clear();
+            fireTableRowsDeleted(common, removed);
+        }
+    }
+}
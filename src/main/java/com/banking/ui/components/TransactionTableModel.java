@@ -0,0 +1,100 @@
+package com.banking.ui.components;
+
+import com.banking.model.Transaction;
+
+import javax.swing.table.AbstractTableModel;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Newest-first transaction table capped at a fixed number of rows. New
+ * transactions are prepended with {@link #prepend(List)}, which fires a single
+ * insert event and trims the oldest rows.
+ */
+public class TransactionTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = {"Date", "Type", "Amount", "Description", "Status"};
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final List<Transaction> transactions = new ArrayList<>();
+    private final int maxRows;
+    private int accountId;
+    private int lastTransactionId;
+
+    public TransactionTableModel(int maxRows) {
+        this.maxRows = maxRows;
+    }
+
+    @Override
+    public int getRowCount() {
+        return transactions.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Transaction transaction = transactions.get(rowIndex);
+        switch (columnIndex) {
+            case 0: return transaction.getTransactionDate() == null ? "" : transaction.getTransactionDate().format(DATE_FORMAT);
+            case 1: return transaction.getTransactionType();
+            case 2: return "$" + transaction.getAmount();
+            case 3: return transaction.getDescription();
+            case 4: return transaction.getStatus();
+            default: return null;
+        }
+    }
+
+    /** The account whose transactions are shown, or 0 if none has been loaded. */
+    public int getAccountId() {
+        return accountId;
+    }
+
+    /** Highest transaction id loaded so far; the starting point for the next delta. */
+    public int getLastTransactionId() {
+        return lastTransactionId;
+    }
+
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    /** Replaces all rows with the (newest-first) transactions of {@code accountId}. */
+    public void load(int accountId, List<Transaction> newestFirst) {
+        this.accountId = accountId;
+        this.lastTransactionId = 0;
+        transactions.clear();
+        transactions.addAll(newestFirst.subList(0, Math.min(newestFirst.size(), maxRows)));
+        for (Transaction transaction : newestFirst) {
+            lastTransactionId = Math.max(lastTransactionId, transaction.getTransactionId());
+        }
+        fireTableDataChanged();
+    }
+
+    /** Adds newer (newest-first) transactions to the top of the table. */
+    public void prepend(List<Transaction> newestFirst) {
+        if (newestFirst.isEmpty()) {
+            return;
+        }
+        List<Transaction> added = newestFirst.subList(0, Math.min(newestFirst.size(), maxRows));
+        for (Transaction transaction : newestFirst) {
+            lastTransactionId = Math.max(lastTransactionId, transaction.getTransactionId());
+        }
+        transactions.addAll(0, added);
+        fireTableRowsInserted(0, added.size() - 1);
+
+        if (transactions.size() > maxRows) {
+            int last = transactions.size() - 1;
+            transactions.subList(maxRows, transactions.size()).clear();
+            fireTableRowsDeleted(maxRows, last);
+        }
+    }
+}